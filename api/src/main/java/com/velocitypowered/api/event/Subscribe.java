@@ -29,9 +29,9 @@ public @interface Subscribe {
   /**
    * Whether the handler must be called asynchronously.
    *
-   * <p><strong>This option currently has no effect, but in the future it will. In Velocity 3.0.0,
-   * all event handlers run asynchronously by default. You are encouraged to determine whether or
-   * not to enable it now. This option is being provided as a migration aid.</strong></p>
+   * <p>In Velocity 3.0.0, all event handlers run asynchronously by default. When every handler of
+   * an event tied to a player disables this option, the proxy may call them on the thread handling
+   * the player's connection, so handlers that disable it must never block.</p>
    *
    * <p>If this method returns {@code true}, the method is guaranteed to be executed
    * asynchronously. Otherwise, the handler may be executed on the current thread or
@@ -7,6 +7,7 @@
 
 package com.velocitypowered.api.scheduler;
 
+import java.time.Duration;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -33,4 +34,32 @@ public interface ScheduledTask {
    * interrupted. If the task is not currently running, Velocity will terminate it safely.
    */
   void cancel();
+
+  /**
+   * Returns the number of times this task has been run so far.
+   *
+   * @return the number of completed runs of this task
+   */
+  default long executionCount() {
+    return 0;
+  }
+
+  /**
+   * Returns the average time this task waited between the moment it was due to run and the
+   * moment it actually started running, which grows when the scheduler is overloaded.
+   *
+   * @return the average queueing delay, or {@link Duration#ZERO} if the task has not run yet
+   */
+  default Duration averageQueueDelay() {
+    return Duration.ZERO;
+  }
+
+  /**
+   * Returns the average time this task took to run.
+   *
+   * @return the average execution time, or {@link Duration#ZERO} if the task has not run yet
+   */
+  default Duration averageExecutionTime() {
+    return Duration.ZERO;
+  }
 }
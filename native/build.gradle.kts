@@ -3,8 +3,64 @@ plugins {
     `maven-publish`
 }
 
+// Foreign Function & Memory API bindings, only final since Java 22. They are packaged in the
+// multi-release part of the jar and replace the stubs from the main source set on newer JVMs.
+val java22: SourceSet by sourceSets.creating {
+    java.setSrcDirs(listOf("src/main/java22"))
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+}
+
+// Runs the bindings above on a Java 22 JVM, the regular tests only ever see the stubs.
+val java22Test: SourceSet by sourceSets.creating {
+    java.setSrcDirs(listOf("src/test/java22"))
+    compileClasspath += java22.output + sourceSets.test.get().compileClasspath
+    runtimeClasspath += java22.output + sourceSets.test.get().runtimeClasspath
+}
+
 dependencies {
     implementation(libs.guava)
     implementation(libs.netty.handler)
     implementation(libs.checker.qual)
 }
+
+tasks {
+    named<JavaCompile>(java22.compileJavaTaskName) {
+        javaCompiler.set(project.javaToolchains.compilerFor {
+            languageVersion.set(JavaLanguageVersion.of(22))
+        })
+        options.release.set(22)
+    }
+    named<JavaCompile>(java22Test.compileJavaTaskName) {
+        javaCompiler.set(project.javaToolchains.compilerFor {
+            languageVersion.set(JavaLanguageVersion.of(22))
+        })
+        options.release.set(22)
+    }
+
+    val java22TestTask = register<Test>("java22Test") {
+        description = "Runs the Foreign Function & Memory API bindings tests on Java 22."
+        group = LifecycleBasePlugin.VERIFICATION_GROUP
+        testClassesDirs = java22Test.output.classesDirs
+        classpath = java22Test.runtimeClasspath
+        javaLauncher.set(project.javaToolchains.launcherFor {
+            languageVersion.set(JavaLanguageVersion.of(22))
+        })
+        useJUnitPlatform()
+        reports {
+            junitXml.required.set(true)
+        }
+    }
+
+    check {
+        dependsOn(java22TestTask)
+    }
+
+    jar {
+        into("META-INF/versions/22") {
+            from(java22.output)
+        }
+        manifest {
+            attributes["Multi-Release"] = "true"
+        }
+    }
+}
@@ -87,22 +87,26 @@ public class JavaVelocityCompressor implements VelocityCompressor {
     checkArgument(destination.nioBufferCount() == 1, "destination has multiple backing buffers");
 
     final int origIdx = source.readerIndex();
-    deflater.setInput(source.nioBuffer());
-    deflater.finish();
+    try {
+      deflater.setInput(source.nioBuffer());
+      deflater.finish();
+
+      while (!deflater.finished()) {
+        if (!destination.isWritable()) {
+          destination.ensureWritable(ZLIB_BUFFER_SIZE);
+        }
 
-    while (!deflater.finished()) {
-      if (!destination.isWritable()) {
-        destination.ensureWritable(ZLIB_BUFFER_SIZE);
+        ByteBuffer destNioBuf = destination.nioBuffer(destination.writerIndex(),
+            destination.writableBytes());
+        int produced = deflater.deflate(destNioBuf);
+        destination.writerIndex(destination.writerIndex() + produced);
       }
 
-      ByteBuffer destNioBuf = destination.nioBuffer(destination.writerIndex(),
-          destination.writableBytes());
-      int produced = deflater.deflate(destNioBuf);
-      destination.writerIndex(destination.writerIndex() + produced);
+      source.readerIndex(origIdx + deflater.getTotalIn());
+    } finally {
+      // Don't leave a half-written stream behind if the destination could not grow
+      deflater.reset();
     }
-
-    source.readerIndex(origIdx + deflater.getTotalIn());
-    deflater.reset();
   }
 
   @Override
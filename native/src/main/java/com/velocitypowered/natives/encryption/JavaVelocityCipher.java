@@ -28,6 +28,12 @@ import javax.crypto.spec.IvParameterSpec;
 
 /**
  * Implements AES-CFB8 encryption/decryption using {@link Cipher}.
+ *
+ * <p>Encryption is byte-serial in CFB8, and is left to the JDK implementation. Decryption is not:
+ * the keystream byte for each position only depends on the 16 ciphertext bytes before it, which
+ * are all known upfront. So the shift register windows are laid out next to each other and
+ * encrypted with a single AES/ECB call, which the JDK runs through its AES intrinsics with the
+ * key schedule computed once.</p>
  */
 public class JavaVelocityCipher implements VelocityCipher {
 
@@ -43,13 +49,30 @@ public class JavaVelocityCipher implements VelocityCipher {
     }
   };
 
+  private static final int BLOCK_SIZE = 16;
+  // Number of bytes decrypted per AES/ECB call, bounding the scratch space to 2 * 16 * this
+  private static final int DECRYPT_CHUNK = 512;
+  private static final ThreadLocal<byte[][]> DECRYPT_SCRATCH = ThreadLocal.withInitial(
+      () -> new byte[2][DECRYPT_CHUNK * BLOCK_SIZE]);
+
   private final Cipher cipher;
+  private final boolean encrypt;
+  // The last 16 ciphertext bytes seen, only used to decrypt
+  private final byte[] register;
   private boolean disposed = false;
 
   private JavaVelocityCipher(boolean encrypt, SecretKey key) throws GeneralSecurityException {
-    this.cipher = Cipher.getInstance("AES/CFB8/NoPadding");
-    this.cipher.init(encrypt ? Cipher.ENCRYPT_MODE : Cipher.DECRYPT_MODE, key,
-        new IvParameterSpec(key.getEncoded()));
+    this.encrypt = encrypt;
+    if (encrypt) {
+      this.cipher = Cipher.getInstance("AES/CFB8/NoPadding");
+      this.cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(key.getEncoded()));
+      this.register = null;
+    } else {
+      this.cipher = Cipher.getInstance("AES/ECB/NoPadding");
+      this.cipher.init(Cipher.ENCRYPT_MODE, key);
+      this.register = key.getEncoded().clone();
+      Preconditions.checkArgument(register.length == BLOCK_SIZE, "cipher not 16 bytes");
+    }
   }
 
   @Override
@@ -61,7 +84,11 @@ public class JavaVelocityCipher implements VelocityCipher {
     int baseOffset = source.arrayOffset() + source.readerIndex();
 
     try {
-      cipher.update(source.array(), baseOffset, inBytes, source.array(), baseOffset);
+      if (encrypt) {
+        cipher.update(source.array(), baseOffset, inBytes, source.array(), baseOffset);
+      } else {
+        decrypt(source.array(), baseOffset, inBytes);
+      }
     } catch (ShortBufferException ex) {
       /* This _really_ shouldn't happen - AES CFB8 will work in place.
          If you run into this, that means that for whatever reason the Java Runtime has determined
@@ -72,6 +99,41 @@ public class JavaVelocityCipher implements VelocityCipher {
     }
   }
 
+  private void decrypt(byte[] data, int offset, int length) throws ShortBufferException {
+    byte[][] scratch = DECRYPT_SCRATCH.get();
+    byte[] windows = scratch[0];
+    byte[] keystream = scratch[1];
+    byte[] register = this.register;
+
+    for (int start = 0; start < length; start += DECRYPT_CHUNK) {
+      int count = Math.min(DECRYPT_CHUNK, length - start);
+      int base = offset + start;
+
+      // Window i is the register followed by the ciphertext, from i to i + 16.
+      for (int i = 0; i < count; i++) {
+        int fromRegister = BLOCK_SIZE - i;
+        if (fromRegister > 0) {
+          System.arraycopy(register, i, windows, i * BLOCK_SIZE, fromRegister);
+          System.arraycopy(data, base, windows, i * BLOCK_SIZE + fromRegister, i);
+        } else {
+          System.arraycopy(data, base + i - BLOCK_SIZE, windows, i * BLOCK_SIZE, BLOCK_SIZE);
+        }
+      }
+      cipher.update(windows, 0, count * BLOCK_SIZE, keystream, 0);
+
+      // Shift the ciphertext into the register before it is overwritten by the plaintext.
+      if (count >= BLOCK_SIZE) {
+        System.arraycopy(data, base + count - BLOCK_SIZE, register, 0, BLOCK_SIZE);
+      } else {
+        System.arraycopy(register, count, register, 0, BLOCK_SIZE - count);
+        System.arraycopy(data, base, register, BLOCK_SIZE - count, count);
+      }
+      for (int i = 0; i < count; i++) {
+        data[base + i] ^= keystream[i * BLOCK_SIZE];
+      }
+    }
+  }
+
   @Override
   public void close() {
     disposed = true;
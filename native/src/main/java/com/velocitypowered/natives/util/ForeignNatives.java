@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2018-2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.natives.util;
+
+import com.velocitypowered.natives.compression.VelocityCompressorFactory;
+import com.velocitypowered.natives.encryption.VelocityCipherFactory;
+
+/**
+ * Binds native libraries through the Foreign Function &amp; Memory API instead of JNI.
+ *
+ * <p>The API is only final since Java 22, so this class is a stub reporting the bindings as
+ * unsupported. On Java 22 and newer, the multi-release jar replaces it with the implementation
+ * found in {@code src/main/java22}.</p>
+ */
+public final class ForeignNatives {
+
+  private ForeignNatives() {
+    throw new AssertionError();
+  }
+
+  /**
+   * Returns whether the running JVM can bind native libraries using the Foreign Function &amp;
+   * Memory API.
+   *
+   * @return whether the other methods of this class can be used
+   */
+  public static boolean isSupported() {
+    return false;
+  }
+
+  /**
+   * Binds the functions of the system libdeflate shared library.
+   *
+   * @return a compressor factory using the library
+   */
+  public static VelocityCompressorFactory libdeflate() {
+    throw new UnsupportedOperationException("The Foreign Function & Memory API is unavailable");
+  }
+
+  /**
+   * Binds the AES-CFB8 EVP functions of the system OpenSSL libcrypto, whatever its version.
+   *
+   * @return a cipher factory using the library
+   */
+  public static VelocityCipherFactory libcrypto() {
+    throw new UnsupportedOperationException("The Foreign Function & Memory API is unavailable");
+  }
+}
@@ -26,6 +26,8 @@ import java.util.function.BooleanSupplier;
  */
 public class NativeConstraints {
   private static final boolean NATIVES_ENABLED = !Boolean.getBoolean("velocity.natives-disabled");
+  private static final boolean FOREIGN_ENABLED =
+      !Boolean.getBoolean("velocity.natives-foreign-disabled");
   private static final boolean IS_AMD64;
   private static final boolean IS_AARCH64;
   private static final boolean CAN_GET_MEMORYADDRESS;
@@ -55,6 +57,12 @@ public class NativeConstraints {
       && System.getProperty("os.name", "").equalsIgnoreCase("Linux")
       && IS_AARCH64;
 
+  static final BooleanSupplier FOREIGN_LINUX = () -> NATIVE_BASE.getAsBoolean()
+      && FOREIGN_ENABLED
+      && ForeignNatives.isSupported()
+      && System.getProperty("os.name", "").equalsIgnoreCase("Linux")
+      && (IS_AMD64 || IS_AARCH64);
+
   static final BooleanSupplier MACOS_AARCH64 = () -> NATIVE_BASE.getAsBoolean()
       && System.getProperty("os.name", "").equalsIgnoreCase("Mac OS X")
       && IS_AARCH64;
@@ -88,6 +88,9 @@ public class Natives {
               copyAndLoadNative("/linux_aarch64/velocity-compress.so"),
               "libdeflate (Linux aarch64)",
               LibdeflateVelocityCompressor.FACTORY), // compiled with Fedora 36
+          // Only when the bundled library can't be loaded, it is the one every build tests
+          new NativeCodeLoader.Variant<>(NativeConstraints.FOREIGN_LINUX, () -> {
+          }, "libdeflate via FFM (Linux)", ForeignNatives::libdeflate),
           new NativeCodeLoader.Variant<>(NativeConstraints.MACOS_AARCH64,
               copyAndLoadNative("/macos_arm64/velocity-compress.dylib"),
               "libdeflate (macOS ARM64 / Apple Silicon)",
@@ -99,6 +102,10 @@ public class Natives {
 
   public static final NativeCodeLoader<VelocityCipherFactory> cipher = new NativeCodeLoader<>(
       ImmutableList.of(
+          // Binds whichever libcrypto the system has, without a glue library per OpenSSL ABI
+          new NativeCodeLoader.Variant<>(NativeConstraints.FOREIGN_LINUX, () -> {
+          }, "OpenSSL via FFM (Linux)", ForeignNatives::libcrypto),
+
           new NativeCodeLoader.Variant<>(NativeConstraints.LINUX_X86_64,
               copyAndLoadNative("/linux_x86_64/velocity-cipher.so"), // Any local version
               "OpenSSL local (Linux x86_64)", NativeVelocityCipher.FACTORY),
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2018-2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.natives.compression;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+import com.google.common.base.Preconditions;
+import com.velocitypowered.natives.util.BufferPreference;
+import io.netty.buffer.ByteBuf;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.invoke.MethodHandle;
+import java.util.zip.DataFormatException;
+
+/**
+ * Implements deflate compression by calling {@code libdeflate} through the Foreign Function &amp;
+ * Memory API, without any JNI glue.
+ */
+public final class ForeignLibdeflateCompressor implements VelocityCompressor {
+
+  // enum libdeflate_result
+  private static final int LIBDEFLATE_SUCCESS = 0;
+  private static final int LIBDEFLATE_BAD_DATA = 1;
+
+  private final Bindings bindings;
+  private final MemorySegment inflateCtx;
+  private final MemorySegment deflateCtx;
+  private boolean disposed = false;
+
+  private ForeignLibdeflateCompressor(Bindings bindings, int level) {
+    int correctedLevel = level == -1 ? 6 : level;
+    if (correctedLevel > 12 || correctedLevel < 1) {
+      throw new IllegalArgumentException("Invalid compression level " + level);
+    }
+
+    this.bindings = bindings;
+    try {
+      this.inflateCtx = (MemorySegment) bindings.allocDecompressor.invokeExact();
+      this.deflateCtx = (MemorySegment) bindings.allocCompressor.invokeExact(correctedLevel);
+    } catch (Throwable e) {
+      throw new IllegalStateException("Unable to allocate libdeflate contexts", e);
+    }
+    if (inflateCtx.equals(MemorySegment.NULL) || deflateCtx.equals(MemorySegment.NULL)) {
+      close();
+      throw new OutOfMemoryError("libdeflate allocate compressor");
+    }
+  }
+
+  /**
+   * Creates a compressor factory using the libdeflate functions found by {@code lookup}.
+   *
+   * @param lookup the lookup for the library exporting the libdeflate functions
+   * @return the factory
+   */
+  public static VelocityCompressorFactory factory(SymbolLookup lookup) {
+    Bindings bindings = new Bindings(lookup);
+    return level -> new ForeignLibdeflateCompressor(bindings, level);
+  }
+
+  @Override
+  public void inflate(ByteBuf source, ByteBuf destination, int uncompressedSize)
+      throws DataFormatException {
+    ensureNotDisposed();
+
+    // Same contract as LibdeflateVelocityCompressor: the uncompressed size must be exact.
+    destination.ensureWritable(uncompressedSize);
+
+    int result;
+    try {
+      result = (int) bindings.zlibDecompress.invokeExact(inflateCtx,
+          address(source, source.readerIndex()), (long) source.readableBytes(),
+          address(destination, destination.writerIndex()), (long) uncompressedSize,
+          MemorySegment.NULL);
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+
+    if (result == LIBDEFLATE_SUCCESS) {
+      destination.writerIndex(destination.writerIndex() + uncompressedSize);
+    } else if (result == LIBDEFLATE_BAD_DATA) {
+      throw new DataFormatException("inflate data is bad");
+    } else {
+      throw new DataFormatException("uncompressed size is inaccurate");
+    }
+  }
+
+  @Override
+  public void deflate(ByteBuf source, ByteBuf destination) throws DataFormatException {
+    ensureNotDisposed();
+
+    while (true) {
+      long produced;
+      try {
+        produced = (long) bindings.zlibCompress.invokeExact(deflateCtx,
+            address(source, source.readerIndex()), (long) source.readableBytes(),
+            address(destination, destination.writerIndex()), (long) destination.writableBytes());
+      } catch (Throwable e) {
+        throw new IllegalStateException(e);
+      }
+
+      if (produced > 0) {
+        destination.writerIndex(destination.writerIndex() + (int) produced);
+        break;
+      } else if (produced == 0) {
+        // Insufficient room - enlarge the buffer.
+        destination.capacity(destination.capacity() * 2);
+      } else {
+        throw new DataFormatException("libdeflate returned unknown code " + produced);
+      }
+    }
+  }
+
+  private static MemorySegment address(ByteBuf buf, int index) {
+    return MemorySegment.ofAddress(buf.memoryAddress() + index);
+  }
+
+  private void ensureNotDisposed() {
+    Preconditions.checkState(!disposed, "Object already disposed");
+  }
+
+  @Override
+  public void close() {
+    if (!disposed) {
+      try {
+        if (!inflateCtx.equals(MemorySegment.NULL)) {
+          bindings.freeDecompressor.invokeExact(inflateCtx);
+        }
+        if (!deflateCtx.equals(MemorySegment.NULL)) {
+          bindings.freeCompressor.invokeExact(deflateCtx);
+        }
+      } catch (Throwable e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    disposed = true;
+  }
+
+  @Override
+  public BufferPreference preferredBufferType() {
+    return BufferPreference.DIRECT_REQUIRED;
+  }
+
+  private static final class Bindings {
+
+    private final MethodHandle allocCompressor;
+    private final MethodHandle freeCompressor;
+    private final MethodHandle zlibCompress;
+    private final MethodHandle allocDecompressor;
+    private final MethodHandle freeDecompressor;
+    private final MethodHandle zlibDecompress;
+
+    Bindings(SymbolLookup lookup) {
+      Linker linker = Linker.nativeLinker();
+      this.allocCompressor = linker.downcallHandle(find(lookup, "libdeflate_alloc_compressor"),
+          FunctionDescriptor.of(ADDRESS, JAVA_INT));
+      this.freeCompressor = linker.downcallHandle(find(lookup, "libdeflate_free_compressor"),
+          FunctionDescriptor.ofVoid(ADDRESS));
+      // size_t is 64 bits wide on all the platforms we ship libdeflate for.
+      this.zlibCompress = linker.downcallHandle(find(lookup, "libdeflate_zlib_compress"),
+          FunctionDescriptor.of(JAVA_LONG, ADDRESS, ADDRESS, JAVA_LONG, ADDRESS, JAVA_LONG));
+      this.allocDecompressor = linker.downcallHandle(find(lookup, "libdeflate_alloc_decompressor"),
+          FunctionDescriptor.of(ADDRESS));
+      this.freeDecompressor = linker.downcallHandle(find(lookup, "libdeflate_free_decompressor"),
+          FunctionDescriptor.ofVoid(ADDRESS));
+      this.zlibDecompress = linker.downcallHandle(find(lookup, "libdeflate_zlib_decompress"),
+          FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_LONG, ADDRESS, JAVA_LONG,
+              ADDRESS));
+    }
+
+    private static MemorySegment find(SymbolLookup lookup, String name) {
+      return lookup.find(name)
+          .orElseThrow(() -> new IllegalArgumentException("Missing symbol " + name));
+    }
+  }
+}
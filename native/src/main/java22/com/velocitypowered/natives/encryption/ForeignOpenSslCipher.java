@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2018-2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.natives.encryption;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+
+import com.google.common.base.Preconditions;
+import com.velocitypowered.natives.util.BufferPreference;
+import io.netty.buffer.ByteBuf;
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.invoke.MethodHandle;
+import java.security.GeneralSecurityException;
+import javax.crypto.SecretKey;
+
+/**
+ * Implements AES-CFB8 encryption/decryption by calling the OpenSSL EVP functions through the
+ * Foreign Function &amp; Memory API. Unlike {@link NativeVelocityCipher}, it does not need a glue
+ * library built against each OpenSSL ABI.
+ */
+public final class ForeignOpenSslCipher implements VelocityCipher {
+
+  private final Bindings bindings;
+  private final MemorySegment ctx;
+  // Scratch space for the output length of EVP_CipherUpdate
+  private final MemorySegment outLength;
+  private final Arena arena;
+  private boolean disposed = false;
+
+  private ForeignOpenSslCipher(Bindings bindings, boolean encrypt, SecretKey key)
+      throws GeneralSecurityException {
+    byte[] encoded = key.getEncoded();
+    if (encoded.length != 16) {
+      throw new IllegalArgumentException("cipher not 16 bytes");
+    }
+
+    this.bindings = bindings;
+    this.arena = Arena.ofShared();
+    try {
+      this.outLength = arena.allocate(JAVA_INT);
+      this.ctx = (MemorySegment) bindings.newContext.invokeExact();
+      if (ctx.equals(MemorySegment.NULL)) {
+        throw new OutOfMemoryError("allocate cipher");
+      }
+
+      MemorySegment keySegment = arena.allocateFrom(JAVA_BYTE, encoded);
+      MemorySegment cipher = (MemorySegment) bindings.aes128Cfb8.invokeExact();
+      int result = (int) bindings.init.invokeExact(ctx, cipher, keySegment, keySegment,
+          encrypt ? 1 : 0);
+      keySegment.fill((byte) 0);
+      if (result != 1) {
+        bindings.freeContext.invokeExact(ctx);
+        throw new GeneralSecurityException("openssl initialize cipher");
+      }
+    } catch (GeneralSecurityException | RuntimeException | Error e) {
+      arena.close();
+      throw e;
+    } catch (Throwable e) {
+      arena.close();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Creates a cipher factory using the libcrypto functions found by {@code lookup}.
+   *
+   * @param lookup the lookup for libcrypto
+   * @return the factory
+   */
+  public static VelocityCipherFactory factory(SymbolLookup lookup) {
+    Bindings bindings = new Bindings(lookup);
+    return new VelocityCipherFactory() {
+      @Override
+      public VelocityCipher forEncryption(SecretKey key) throws GeneralSecurityException {
+        return new ForeignOpenSslCipher(bindings, true, key);
+      }
+
+      @Override
+      public VelocityCipher forDecryption(SecretKey key) throws GeneralSecurityException {
+        return new ForeignOpenSslCipher(bindings, false, key);
+      }
+    };
+  }
+
+  @Override
+  public void process(ByteBuf source) {
+    ensureNotDisposed();
+
+    MemorySegment base = MemorySegment.ofAddress(source.memoryAddress() + source.readerIndex());
+    try {
+      int ignored = (int) bindings.update.invokeExact(ctx, base, outLength, base,
+          source.readableBytes());
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (!disposed) {
+      try {
+        bindings.freeContext.invokeExact(ctx);
+      } catch (Throwable e) {
+        throw new IllegalStateException(e);
+      } finally {
+        arena.close();
+      }
+    }
+    disposed = true;
+  }
+
+  private void ensureNotDisposed() {
+    Preconditions.checkState(!disposed, "Object already disposed");
+  }
+
+  @Override
+  public BufferPreference preferredBufferType() {
+    return BufferPreference.DIRECT_REQUIRED;
+  }
+
+  private static final class Bindings {
+
+    private final MethodHandle newContext;
+    private final MethodHandle freeContext;
+    private final MethodHandle aes128Cfb8;
+    private final MethodHandle init;
+    private final MethodHandle update;
+
+    Bindings(SymbolLookup lookup) {
+      Linker linker = Linker.nativeLinker();
+      this.newContext = linker.downcallHandle(find(lookup, "EVP_CIPHER_CTX_new"),
+          FunctionDescriptor.of(ADDRESS));
+      this.freeContext = linker.downcallHandle(find(lookup, "EVP_CIPHER_CTX_free"),
+          FunctionDescriptor.ofVoid(ADDRESS));
+      this.aes128Cfb8 = linker.downcallHandle(find(lookup, "EVP_aes_128_cfb8"),
+          FunctionDescriptor.of(ADDRESS));
+      this.init = linker.downcallHandle(find(lookup, "EVP_CipherInit"),
+          FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS, ADDRESS, JAVA_INT));
+      // Encrypting a packet is short and never calls back into Java, so skip the thread state
+      // transitions a regular downcall goes through.
+      this.update = linker.downcallHandle(find(lookup, "EVP_CipherUpdate"),
+          FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, ADDRESS, ADDRESS, JAVA_INT),
+          Linker.Option.critical(false));
+    }
+
+    private static MemorySegment find(SymbolLookup lookup, String name) {
+      return lookup.find(name)
+          .orElseThrow(() -> new IllegalArgumentException("Missing symbol " + name));
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2018-2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.natives.util;
+
+import com.velocitypowered.natives.compression.ForeignLibdeflateCompressor;
+import com.velocitypowered.natives.compression.VelocityCompressorFactory;
+import com.velocitypowered.natives.encryption.ForeignOpenSslCipher;
+import com.velocitypowered.natives.encryption.VelocityCipherFactory;
+import java.lang.foreign.Arena;
+import java.lang.foreign.SymbolLookup;
+import java.util.List;
+
+/**
+ * Binds native libraries through the Foreign Function &amp; Memory API instead of JNI. This is
+ * the Java 22 version of the class, loaded from the multi-release jar.
+ */
+public final class ForeignNatives {
+
+  // The bundled velocity-compress libraries keep the libdeflate symbols hidden, so the system
+  // library is used instead.
+  private static final List<String> LIBDEFLATE_NAMES = List.of(
+      "libdeflate.so.0",
+      "libdeflate.so"
+  );
+
+  // libcrypto sonames, newest first. The EVP functions we use have a stable ABI across them.
+  private static final List<String> LIBCRYPTO_NAMES = List.of(
+      "libcrypto.so.3",
+      "libcrypto.so.1.1",
+      "libcrypto.so.10",
+      "libcrypto.so"
+  );
+
+  private ForeignNatives() {
+    throw new AssertionError();
+  }
+
+  /**
+   * Returns whether the running JVM can bind native libraries using the Foreign Function &amp;
+   * Memory API.
+   *
+   * @return whether the other methods of this class can be used
+   */
+  public static boolean isSupported() {
+    return true;
+  }
+
+  /**
+   * Binds the functions of the system libdeflate shared library.
+   *
+   * @return a compressor factory using the library
+   */
+  public static VelocityCompressorFactory libdeflate() {
+    return ForeignLibdeflateCompressor.factory(lookup(LIBDEFLATE_NAMES));
+  }
+
+  /**
+   * Binds the AES-CFB8 EVP functions of the system OpenSSL libcrypto, whatever its version.
+   *
+   * @return a cipher factory using the library
+   */
+  public static VelocityCipherFactory libcrypto() {
+    return ForeignOpenSslCipher.factory(lookup(LIBCRYPTO_NAMES));
+  }
+
+  private static SymbolLookup lookup(List<String> names) {
+    IllegalArgumentException failure = null;
+    for (String name : names) {
+      try {
+        return SymbolLookup.libraryLookup(name, Arena.global());
+      } catch (IllegalArgumentException e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    throw failure;
+  }
+}
@@ -28,6 +28,8 @@ import io.netty.buffer.Unpooled;
 import java.security.GeneralSecurityException;
 import java.util.Random;
 import java.util.function.Supplier;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -62,6 +64,31 @@ class VelocityCipherTest {
     check(JavaVelocityCipher.FACTORY, Unpooled::buffer);
   }
 
+  @Test
+  void javaDecryptionIsStreamedAcrossCalls() throws GeneralSecurityException {
+    SecretKeySpec key = new SecretKeySpec(AES_KEY, "AES");
+    Cipher reference = Cipher.getInstance("AES/CFB8/NoPadding");
+    reference.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(AES_KEY));
+    byte[] encrypted = reference.doFinal(TEST_DATA);
+
+    VelocityCipher decrypt = JavaVelocityCipher.FACTORY.forDecryption(key);
+    ByteBuf workingBuf = Unpooled.wrappedBuffer(encrypted);
+    try {
+      // Odd sizes, so that the shift register is carried over in every possible state
+      int[] sizes = {1, 7, 15, 16, 17, 511, 512, 513, 1500};
+      int offset = 0;
+      for (int i = 0; offset < encrypted.length; i++) {
+        int length = Math.min(sizes[i % sizes.length], encrypted.length - offset);
+        decrypt.process(workingBuf.slice(offset, length));
+        offset += length;
+      }
+      assertTrue(ByteBufUtil.equals(Unpooled.wrappedBuffer(TEST_DATA), workingBuf));
+    } finally {
+      workingBuf.release();
+      decrypt.close();
+    }
+  }
+
   private void check(VelocityCipherFactory factory, Supplier<ByteBuf> bufSupplier)
       throws GeneralSecurityException {
     // Generate a random 16-byte key.
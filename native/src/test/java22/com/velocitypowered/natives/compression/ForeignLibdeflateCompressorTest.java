@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.natives.compression;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.junit.jupiter.api.condition.OS.LINUX;
+
+import com.velocitypowered.natives.util.ForeignNatives;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+
+/**
+ * Checks the libdeflate bindings against the Java compressor, which they must stay compatible with.
+ */
+@EnabledOnOs({LINUX})
+class ForeignLibdeflateCompressorTest {
+
+  private static final byte[] TEST_DATA = new byte[1 << 14];
+  private static VelocityCompressorFactory factory;
+
+  @BeforeAll
+  static void bindLibrary() {
+    assumeTrue(ForeignNatives.isSupported(), "Foreign Function & Memory API not supported");
+    try {
+      factory = ForeignNatives.libdeflate();
+    } catch (IllegalArgumentException e) {
+      assumeTrue(false, "libdeflate is not installed");
+    }
+    new Random(1).nextBytes(TEST_DATA);
+  }
+
+  @Test
+  void sanityCheck() {
+    assertThrows(IllegalArgumentException.class, () -> factory.create(-42));
+  }
+
+  @Test
+  void deflatedByForeignInflatedByJava() throws DataFormatException {
+    check(factory.create(Deflater.DEFAULT_COMPRESSION),
+        JavaVelocityCompressor.FACTORY.create(Deflater.DEFAULT_COMPRESSION));
+  }
+
+  @Test
+  void deflatedByJavaInflatedByForeign() throws DataFormatException {
+    check(JavaVelocityCompressor.FACTORY.create(Deflater.DEFAULT_COMPRESSION),
+        factory.create(Deflater.DEFAULT_COMPRESSION));
+  }
+
+  private static void check(VelocityCompressor deflater, VelocityCompressor inflater)
+      throws DataFormatException {
+    ByteBuf source = Unpooled.directBuffer().writeBytes(TEST_DATA);
+    // Too small for random data on purpose, to exercise the retry path
+    ByteBuf dest = Unpooled.directBuffer(TEST_DATA.length / 2);
+    ByteBuf decompressed = Unpooled.directBuffer(TEST_DATA.length);
+
+    try {
+      deflater.deflate(source, dest);
+      inflater.inflate(dest, decompressed, TEST_DATA.length);
+      assertTrue(ByteBufUtil.equals(Unpooled.wrappedBuffer(TEST_DATA), decompressed));
+    } finally {
+      source.release();
+      dest.release();
+      decompressed.release();
+      deflater.close();
+      inflater.close();
+    }
+  }
+}
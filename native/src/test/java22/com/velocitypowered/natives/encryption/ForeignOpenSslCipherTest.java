@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.natives.encryption;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.junit.jupiter.api.condition.OS.LINUX;
+
+import com.velocitypowered.natives.util.BufferPreference;
+import com.velocitypowered.natives.util.ForeignNatives;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import java.security.GeneralSecurityException;
+import java.util.Random;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+
+/**
+ * Checks the libcrypto bindings against the Java cipher, which they must stay compatible with.
+ */
+@EnabledOnOs({LINUX})
+class ForeignOpenSslCipherTest {
+
+  private static final byte[] TEST_DATA = new byte[1 << 14];
+  private static final byte[] AES_KEY = new byte[16];
+  private static VelocityCipherFactory factory;
+
+  @BeforeAll
+  static void bindLibrary() {
+    assumeTrue(ForeignNatives.isSupported(), "Foreign Function & Memory API not supported");
+    try {
+      factory = ForeignNatives.libcrypto();
+    } catch (IllegalArgumentException e) {
+      assumeTrue(false, "libcrypto is not installed");
+    }
+    Random random = new Random(1);
+    random.nextBytes(TEST_DATA);
+    random.nextBytes(AES_KEY);
+  }
+
+  @Test
+  void encryptedByForeignDecryptedByJava() throws GeneralSecurityException {
+    SecretKey key = new SecretKeySpec(AES_KEY, "AES");
+    check(factory.forEncryption(key), JavaVelocityCipher.FACTORY.forDecryption(key));
+  }
+
+  @Test
+  void encryptedByJavaDecryptedByForeign() throws GeneralSecurityException {
+    SecretKey key = new SecretKeySpec(AES_KEY, "AES");
+    check(JavaVelocityCipher.FACTORY.forEncryption(key), factory.forDecryption(key));
+  }
+
+  @Test
+  void streamedAcrossCalls() throws GeneralSecurityException {
+    SecretKey key = new SecretKeySpec(AES_KEY, "AES");
+    VelocityCipher encrypt = factory.forEncryption(key);
+    VelocityCipher decrypt = JavaVelocityCipher.FACTORY.forDecryption(key);
+    ByteBuf encrypted = Unpooled.directBuffer().writeBytes(TEST_DATA);
+    ByteBuf decrypted = Unpooled.buffer();
+    try {
+      // Odd sizes, so that the cipher state is carried over between calls
+      int[] sizes = {1, 7, 15, 16, 17, 511, 512, 513, 1500};
+      int offset = 0;
+      for (int i = 0; offset < TEST_DATA.length; i++) {
+        int length = Math.min(sizes[i % sizes.length], TEST_DATA.length - offset);
+        encrypt.process(encrypted.slice(offset, length));
+        offset += length;
+      }
+      decrypted.writeBytes(encrypted);
+      decrypt.process(decrypted);
+      assertTrue(ByteBufUtil.equals(Unpooled.wrappedBuffer(TEST_DATA), decrypted));
+    } finally {
+      encrypted.release();
+      decrypted.release();
+      encrypt.close();
+      decrypt.close();
+    }
+  }
+
+  private static void check(VelocityCipher encrypt, VelocityCipher decrypt) {
+    // The Java cipher only works on heap buffers, and the foreign one on direct buffers
+    ByteBuf encrypted = bufferFor(encrypt).writeBytes(TEST_DATA);
+    ByteBuf decrypted = bufferFor(decrypt);
+    try {
+      encrypt.process(encrypted);
+      decrypted.writeBytes(encrypted);
+      decrypt.process(decrypted);
+      assertTrue(ByteBufUtil.equals(Unpooled.wrappedBuffer(TEST_DATA), decrypted));
+    } finally {
+      encrypted.release();
+      decrypted.release();
+      encrypt.close();
+      decrypt.close();
+    }
+  }
+
+  private static ByteBuf bufferFor(VelocityCipher cipher) {
+    return cipher.preferredBufferType() == BufferPreference.HEAP_REQUIRED ? Unpooled.buffer()
+        : Unpooled.directBuffer();
+  }
+}
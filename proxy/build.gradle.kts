@@ -4,6 +4,7 @@ plugins {
     application
     `set-manifest-impl-version`
     alias(libs.plugins.shadow)
+    alias(libs.plugins.jmh)
 }
 
 application {
@@ -20,6 +21,8 @@ tasks {
             attributes["Implementation-Title"] = "Velocity"
             attributes["Implementation-Vendor"] = "Velocity Contributors"
             attributes["Multi-Release"] = "true"
+            // Lets the FFM natives backend run without warnings on Java 22+
+            attributes["Enable-Native-Access"] = "ALL-UNNAMED"
         }
     }
 
@@ -88,6 +91,12 @@ tasks {
     }
 }
 
+jmh {
+    jmhVersion.set(libs.versions.jmh.get())
+    // Run with -PjmhInclude=<regex> to pick specific benchmarks
+    providers.gradleProperty("jmhInclude").orNull?.let { includes.add(it) }
+}
+
 dependencies {
     implementation(project(":velocity-api"))
     implementation(project(":velocity-native"))
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2018-2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import com.velocitypowered.natives.encryption.VelocityCipher;
+import com.velocitypowered.natives.encryption.VelocityCipherFactory;
+import com.velocitypowered.natives.util.MoreByteBufUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks a single {@link VelocityCipher#process(ByteBuf)} call, as made by
+ * {@link MinecraftCipherDecoder} for every read and by {@link MinecraftCipherEncoder} for every
+ * flush.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CipherBenchmark {
+
+  @Param({"JAVA", "NATIVE"})
+  public NativeImplementation cipher;
+
+  @Param({"16", "256", "2048", "32768"})
+  public int size;
+
+  @Param({"false", "true"})
+  public boolean decrypt;
+
+  private VelocityCipher cipherInstance;
+  private ByteBuf buffer;
+
+  /**
+   * Creates the cipher and the buffer it works on.
+   *
+   * @throws GeneralSecurityException if the cipher can't be created
+   */
+  @Setup
+  public void setup() throws GeneralSecurityException {
+    VelocityCipherFactory factory = cipher.cipherFactory();
+    SecretKey key = NativeImplementation.randomKey();
+    this.cipherInstance = decrypt ? factory.forDecryption(key) : factory.forEncryption(key);
+    this.buffer = MoreByteBufUtils.preferredBuffer(ByteBufAllocator.DEFAULT, cipherInstance, size);
+    byte[] data = new byte[size];
+    ThreadLocalRandom.current().nextBytes(data);
+    buffer.writeBytes(data);
+  }
+
+  @TearDown
+  public void tearDown() {
+    buffer.release();
+    cipherInstance.close();
+  }
+
+  /**
+   * Encrypts or decrypts the buffer in place. CFB8 is a stream mode, so processing the same bytes
+   * over and over is as good as processing fresh ones.
+   *
+   * @return the buffer, to keep the work from being eliminated
+   */
+  @Benchmark
+  public ByteBuf process() {
+    cipherInstance.process(buffer);
+    return buffer;
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2018-2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.StateRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the backend-to-proxy half of the pipeline: {@link MinecraftVarintFrameDecoder},
+ * {@link MinecraftCompressDecoder} and {@link MinecraftDecoder}, reading one {@link PacketMix}
+ * burst per invocation. Backend connections are not encrypted, so there is no cipher here; see
+ * {@link CipherBenchmark} for that.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InboundPipelineBenchmark {
+
+  @Param({"CHUNKS", "MOVEMENT", "CHAT"})
+  public PacketMix mix;
+
+  @Param({"JAVA", "NATIVE"})
+  public NativeImplementation compressor;
+
+  @Param({"256"})
+  public int threshold;
+
+  @Param({"false", "true"})
+  public boolean passthrough;
+
+  private EmbeddedChannel channel;
+  private ByteBuf burst;
+
+  /**
+   * Encodes the burst once, the way a backend server would put it on the wire, and builds the
+   * inbound pipeline that reads it back.
+   */
+  @Setup
+  public void setup() {
+    MinecraftEncoder encoder = new MinecraftEncoder(ProtocolUtils.Direction.CLIENTBOUND);
+    encoder.setState(StateRegistry.PLAY);
+    encoder.setProtocolVersion(PacketMix.VERSION);
+    EmbeddedChannel encoderChannel = new EmbeddedChannel(
+        new MinecraftCompressorAndLengthEncoder(threshold, compressor.createCompressor(-1)),
+        encoder);
+
+    List<Object> packets = mix.createPackets();
+    try {
+      for (Object packet : packets) {
+        encoderChannel.write(PacketMix.retainForWrite(packet));
+      }
+      encoderChannel.flush();
+
+      this.burst = Unpooled.directBuffer();
+      ByteBuf encoded;
+      while ((encoded = encoderChannel.readOutbound()) != null) {
+        burst.writeBytes(encoded);
+        encoded.release();
+      }
+    } finally {
+      encoderChannel.finishAndReleaseAll();
+      PacketMix.release(packets);
+    }
+
+    MinecraftDecoder decoder = new MinecraftDecoder(ProtocolUtils.Direction.CLIENTBOUND);
+    decoder.setState(StateRegistry.PLAY);
+    decoder.setProtocolVersion(PacketMix.VERSION);
+    MinecraftCompressDecoder compressDecoder = new MinecraftCompressDecoder(threshold,
+        compressor.createCompressor(-1));
+    if (passthrough) {
+      compressDecoder.setPassthroughFilter(decoder::isDecodable);
+    }
+    this.channel = new EmbeddedChannel(new MinecraftVarintFrameDecoder(), compressDecoder,
+        decoder);
+  }
+
+  @TearDown
+  public void tearDown() {
+    channel.finishAndReleaseAll();
+    burst.release();
+  }
+
+  /**
+   * Reads a single burst of packets.
+   *
+   * @param blackhole the blackhole to sink the decoded packets into
+   */
+  @Benchmark
+  public void readBurst(Blackhole blackhole) {
+    channel.writeInbound(burst.retainedDuplicate());
+
+    Object decoded;
+    while ((decoded = channel.readInbound()) != null) {
+      blackhole.consume(decoded);
+      ReferenceCountUtil.release(decoded);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2018-2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import com.velocitypowered.natives.compression.JavaVelocityCompressor;
+import com.velocitypowered.natives.compression.VelocityCompressor;
+import com.velocitypowered.natives.compression.VelocityCompressorFactory;
+import com.velocitypowered.natives.encryption.JavaVelocityCipher;
+import com.velocitypowered.natives.encryption.VelocityCipher;
+import com.velocitypowered.natives.encryption.VelocityCipherFactory;
+import com.velocitypowered.natives.util.Natives;
+import java.security.SecureRandom;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Selects between the pure-Java and native implementations of {@link VelocityCompressor} and
+ * {@link VelocityCipher}, so that both can be benchmarked on the same machine.
+ */
+public enum NativeImplementation {
+  JAVA,
+  NATIVE;
+
+  /**
+   * Creates a compressor backed by this implementation.
+   *
+   * @param level the compression level
+   * @return the compressor
+   * @throws IllegalStateException if no native compressor can be loaded on this platform
+   */
+  VelocityCompressor createCompressor(int level) {
+    VelocityCompressorFactory factory = this == JAVA ? JavaVelocityCompressor.FACTORY
+        : Natives.compress.get();
+    if (this == NATIVE && factory == JavaVelocityCompressor.FACTORY) {
+      throw new IllegalStateException("No native compressor is available on this platform");
+    }
+    return factory.create(level);
+  }
+
+  /**
+   * Creates a cipher factory backed by this implementation.
+   *
+   * @return the cipher factory
+   * @throws IllegalStateException if no native cipher can be loaded on this platform
+   */
+  VelocityCipherFactory cipherFactory() {
+    VelocityCipherFactory factory = this == JAVA ? JavaVelocityCipher.FACTORY
+        : Natives.cipher.get();
+    if (this == NATIVE && factory == JavaVelocityCipher.FACTORY) {
+      throw new IllegalStateException("No native cipher is available on this platform");
+    }
+    return factory;
+  }
+
+  static SecretKey randomKey() {
+    byte[] key = new byte[16];
+    new SecureRandom().nextBytes(key);
+    return new SecretKeySpec(key, "AES");
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2018-2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.StateRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.security.GeneralSecurityException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the proxy-to-player half of the pipeline: {@link MinecraftEncoder},
+ * {@link MinecraftCompressorAndLengthEncoder} and {@link MinecraftCipherEncoder}, writing one
+ * {@link PacketMix} burst per invocation and flushing it once, like
+ * {@code BackendPlaySessionHandler} does on {@code readCompleted}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutboundPipelineBenchmark {
+
+  @Param({"CHUNKS", "MOVEMENT", "CHAT"})
+  public PacketMix mix;
+
+  @Param({"JAVA", "NATIVE"})
+  public NativeImplementation compressor;
+
+  @Param({"JAVA", "NATIVE"})
+  public NativeImplementation cipher;
+
+  @Param({"256"})
+  public int threshold;
+
+  private EmbeddedChannel channel;
+  private List<Object> packets;
+
+  /**
+   * Builds the outbound pipeline and the packets to write.
+   *
+   * @throws GeneralSecurityException if the cipher can't be created
+   */
+  @Setup
+  public void setup() throws GeneralSecurityException {
+    MinecraftEncoder encoder = new MinecraftEncoder(ProtocolUtils.Direction.CLIENTBOUND);
+    encoder.setState(StateRegistry.PLAY);
+    encoder.setProtocolVersion(PacketMix.VERSION);
+
+    this.channel = new EmbeddedChannel(
+        new MinecraftCipherEncoder(cipher.cipherFactory()
+            .forEncryption(NativeImplementation.randomKey())),
+        new MinecraftCompressorAndLengthEncoder(threshold, compressor.createCompressor(-1)),
+        encoder);
+    this.packets = mix.createPackets();
+  }
+
+  @TearDown
+  public void tearDown() {
+    channel.finishAndReleaseAll();
+    PacketMix.release(packets);
+  }
+
+  /**
+   * Writes and flushes a single burst of packets.
+   *
+   * @param blackhole the blackhole to sink the encoded bytes into
+   */
+  @Benchmark
+  public void writeBurst(Blackhole blackhole) {
+    for (Object packet : packets) {
+      channel.write(PacketMix.retainForWrite(packet));
+    }
+    channel.flush();
+
+    ByteBuf encoded;
+    while ((encoded = channel.readOutbound()) != null) {
+      blackhole.consume(encoded.readableBytes());
+      encoded.release();
+    }
+  }
+}
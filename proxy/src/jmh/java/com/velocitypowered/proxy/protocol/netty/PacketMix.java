@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2018-2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.packet.KeepAlive;
+import com.velocitypowered.proxy.protocol.packet.PluginMessage;
+import com.velocitypowered.proxy.protocol.packet.chat.ChatType;
+import com.velocitypowered.proxy.protocol.packet.chat.SystemChat;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+/**
+ * A burst of clientbound play packets shaped like the traffic a busy proxy forwards. Packets the
+ * proxy does not know about (chunks and entity movement) are kept as raw {@link ByteBuf}s, the
+ * way they reach {@code MinecraftConnection.delayedWrite} from the backend, while chat, plugin
+ * messages and keep-alives are real {@link com.velocitypowered.proxy.protocol.MinecraftPacket}s.
+ */
+public enum PacketMix {
+  /**
+   * Mostly chunk data, as seen while players are joining or flying around.
+   */
+  CHUNKS(8, 16, 2, 1),
+  /**
+   * Mostly entity movement, as seen in a crowded lobby.
+   */
+  MOVEMENT(1, 256, 4, 1),
+  /**
+   * Chat and plugin messages, as seen on a minigame server with a busy scoreboard.
+   */
+  CHAT(0, 32, 64, 16);
+
+  // Packet IDs for packets Velocity does not register, as of Minecraft 1.19.4.
+  private static final int CHUNK_DATA_ID = 0x24;
+  private static final int ENTITY_POSITION_ID = 0x2B;
+
+  static final ProtocolVersion VERSION = ProtocolVersion.MINECRAFT_1_19_4;
+
+  private final int chunks;
+  private final int movements;
+  private final int chats;
+  private final int pluginMessages;
+
+  PacketMix(int chunks, int movements, int chats, int pluginMessages) {
+    this.chunks = chunks;
+    this.movements = movements;
+    this.chats = chats;
+    this.pluginMessages = pluginMessages;
+  }
+
+  /**
+   * Creates the packets making up one burst of this mix. The returned objects must be written
+   * using {@link #retainForWrite(Object)}, and released with {@link #release(List)} once the
+   * benchmark is done.
+   *
+   * @return the packets in this burst
+   */
+  List<Object> createPackets() {
+    Random random = new Random(0xC0FFEE);
+    List<Object> packets = new ArrayList<>();
+    for (int i = 0; i < chunks; i++) {
+      packets.add(chunkData(random));
+    }
+    for (int i = 0; i < movements; i++) {
+      packets.add(entityPosition(random));
+      if (i % 64 == 0) {
+        packets.add(new KeepAlive());
+      }
+    }
+    for (int i = 0; i < chats; i++) {
+      packets.add(new SystemChat(Component.text("Player" + random.nextInt(1000)
+          + " has completed the advancement ", NamedTextColor.YELLOW)
+          .append(Component.text("[Sweet Dreams]", NamedTextColor.GREEN)), ChatType.SYSTEM));
+    }
+    for (int i = 0; i < pluginMessages; i++) {
+      byte[] payload = new byte[256 + random.nextInt(384)];
+      random.nextBytes(payload);
+      packets.add(new PluginMessage("bungeecord:main", Unpooled.wrappedBuffer(payload)));
+    }
+    return packets;
+  }
+
+  /**
+   * Returns a reference to {@code packet} that the encoder pipeline is allowed to release.
+   *
+   * @param packet the packet to write
+   * @return the message to hand to the pipeline
+   */
+  static Object retainForWrite(Object packet) {
+    if (packet instanceof ByteBuf) {
+      return ((ByteBuf) packet).retainedDuplicate();
+    } else if (packet instanceof PluginMessage) {
+      return ((PluginMessage) packet).retainedDuplicate();
+    }
+    return packet;
+  }
+
+  static void release(List<Object> packets) {
+    for (Object packet : packets) {
+      ReferenceCountUtil.release(packet);
+    }
+  }
+
+  private static ByteBuf chunkData(Random random) {
+    ByteBuf buf = Unpooled.buffer();
+    ProtocolUtils.writeVarInt(buf, CHUNK_DATA_ID);
+    buf.writeInt(random.nextInt(64));
+    buf.writeInt(random.nextInt(64));
+    // Stand-in for the heightmaps NBT compound. The section data that follows is repetitive
+    // palette-indexed longs with some noise, which compresses roughly like real terrain.
+    buf.writeZero(40 * Long.BYTES);
+    int sectionBytes = 8192 + random.nextInt(8192);
+    ProtocolUtils.writeVarInt(buf, sectionBytes);
+    for (int i = 0; i < sectionBytes / Long.BYTES; i++) {
+      buf.writeLong(random.nextInt(8) == 0 ? random.nextLong() : 0x1111111111111111L);
+    }
+    ProtocolUtils.writeVarInt(buf, 0); // block entities
+    buf.writeZero(64); // light masks and arrays
+    return buf;
+  }
+
+  private static ByteBuf entityPosition(Random random) {
+    ByteBuf buf = Unpooled.buffer(16);
+    ProtocolUtils.writeVarInt(buf, ENTITY_POSITION_ID);
+    ProtocolUtils.writeVarInt(buf, random.nextInt(2048));
+    buf.writeShort(random.nextInt(512) - 256);
+    buf.writeShort(random.nextInt(64) - 32);
+    buf.writeShort(random.nextInt(512) - 256);
+    buf.writeBoolean(true);
+    return buf;
+  }
+}
@@ -43,6 +43,7 @@ import com.velocitypowered.proxy.command.builtin.ShutdownCommand;
 import com.velocitypowered.proxy.command.builtin.VelocityCommand;
 import com.velocitypowered.proxy.config.VelocityConfiguration;
 import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.connection.client.MojangSessionService;
 import com.velocitypowered.proxy.connection.player.VelocityResourcePackInfo;
 import com.velocitypowered.proxy.connection.util.ServerListPingHandler;
 import com.velocitypowered.proxy.console.VelocityConsole;
@@ -146,6 +147,7 @@ public class VelocityServer implements ProxyServer, ForwardingAudience {
   private final VelocityScheduler scheduler;
   private final VelocityChannelRegistrar channelRegistrar = new VelocityChannelRegistrar();
   private ServerListPingHandler serverListPingHandler;
+  private final MojangSessionService sessionService;
 
   VelocityServer(final ProxyOptions options) {
     pluginManager = new VelocityPluginManager(this);
@@ -156,6 +158,7 @@ public class VelocityServer implements ProxyServer, ForwardingAudience {
     connectionManager = new ConnectionManager(this);
     servers = new ServerMap(this);
     serverListPingHandler = new ServerListPingHandler(this);
+    sessionService = new MojangSessionService(this::getAsyncHttpClient);
     this.options = options;
     this.bossBarManager = new AdventureBossBarManager();
   }
@@ -574,6 +577,10 @@ public class VelocityServer implements ProxyServer, ForwardingAudience {
     return connectionManager.getHttpClient();
   }
 
+  public MojangSessionService getSessionService() {
+    return sessionService;
+  }
+
   public Ratelimiter getIpAttemptLimiter() {
     return ipAttemptLimiter;
   }
@@ -343,9 +343,9 @@ public class VelocityCommand implements SimpleCommand {
   private static class Dump implements SubCommand {
 
     private static final Logger logger = LogManager.getLogger(Dump.class);
-    private final ProxyServer server;
+    private final VelocityServer server;
 
-    private Dump(ProxyServer server) {
+    private Dump(VelocityServer server) {
       this.server = server;
     }
 
@@ -380,6 +380,10 @@ public class VelocityCommand implements SimpleCommand {
       dump.add("platform", InformationUtils.collectEnvironmentInfo());
       dump.add("config", proxyConfig);
       dump.add("plugins", InformationUtils.collectPluginInfo(server));
+      dump.add("flushes", InformationUtils.collectFlushStatistics(server));
+      dump.add("authentication", server.getSessionService().getStatistics());
+      dump.add("scheduler", server.getScheduler().getStatistics());
+      dump.add("events", server.getEventManager().getStatistics());
 
       Path dumpPath = Path.of("velocity-dump-"
           + new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss").format(new Date())
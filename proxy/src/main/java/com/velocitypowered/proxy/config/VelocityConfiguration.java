@@ -392,6 +392,14 @@ public class VelocityConfiguration implements ProxyConfig {
     return advanced.isLogPlayerConnections();
   }
 
+  public int getPingPassthroughCacheTtl() {
+    return advanced.getPingPassthroughCacheTtl();
+  }
+
+  public int getPingPassthroughStaleTtl() {
+    return advanced.getPingPassthroughStaleTtl();
+  }
+
   public boolean isForceKeyAuthentication() {
     return forceKeyAuthentication;
   }
@@ -758,6 +766,10 @@ public class VelocityConfiguration implements ProxyConfig {
     private boolean logCommandExecutions = false;
     @Expose
     private boolean logPlayerConnections = true;
+    @Expose
+    private int pingPassthroughCacheTtl = 2000;
+    @Expose
+    private int pingPassthroughStaleTtl = 10000;
 
     private Advanced() {
     }
@@ -782,6 +794,8 @@ public class VelocityConfiguration implements ProxyConfig {
         this.announceProxyCommands = config.getOrElse("announce-proxy-commands", true);
         this.logCommandExecutions = config.getOrElse("log-command-executions", false);
         this.logPlayerConnections = config.getOrElse("log-player-connections", true);
+        this.pingPassthroughCacheTtl = config.getIntOrElse("ping-passthrough-cache-ttl", 2000);
+        this.pingPassthroughStaleTtl = config.getIntOrElse("ping-passthrough-stale-ttl", 10000);
       }
     }
 
@@ -837,6 +851,14 @@ public class VelocityConfiguration implements ProxyConfig {
       return logPlayerConnections;
     }
 
+    public int getPingPassthroughCacheTtl() {
+      return pingPassthroughCacheTtl;
+    }
+
+    public int getPingPassthroughStaleTtl() {
+      return pingPassthroughStaleTtl;
+    }
+
     @Override
     public String toString() {
       return "Advanced{"
@@ -853,6 +875,8 @@ public class VelocityConfiguration implements ProxyConfig {
           + ", announceProxyCommands=" + announceProxyCommands
           + ", logCommandExecutions=" + logCommandExecutions
           + ", logPlayerConnections=" + logPlayerConnections
+          + ", pingPassthroughCacheTtl=" + pingPassthroughCacheTtl
+          + ", pingPassthroughStaleTtl=" + pingPassthroughStaleTtl
           + '}';
     }
   }
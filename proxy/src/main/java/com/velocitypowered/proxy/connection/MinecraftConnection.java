@@ -37,8 +37,10 @@ import com.velocitypowered.proxy.connection.client.HandshakeSessionHandler;
 import com.velocitypowered.proxy.connection.client.InitialLoginSessionHandler;
 import com.velocitypowered.proxy.connection.client.StatusSessionHandler;
 import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import com.velocitypowered.proxy.protocol.PreparedPacket;
 import com.velocitypowered.proxy.protocol.StateRegistry;
 import com.velocitypowered.proxy.protocol.VelocityConnectionEvent;
+import com.velocitypowered.proxy.protocol.netty.CompressedFrame;
 import com.velocitypowered.proxy.protocol.netty.MinecraftCipherDecoder;
 import com.velocitypowered.proxy.protocol.netty.MinecraftCipherEncoder;
 import com.velocitypowered.proxy.protocol.netty.MinecraftCompressDecoder;
@@ -46,6 +48,7 @@ import com.velocitypowered.proxy.protocol.netty.MinecraftCompressorAndLengthEnco
 import com.velocitypowered.proxy.protocol.netty.MinecraftDecoder;
 import com.velocitypowered.proxy.protocol.netty.MinecraftEncoder;
 import com.velocitypowered.proxy.protocol.netty.MinecraftVarintLengthEncoder;
+import com.velocitypowered.proxy.protocol.netty.PreparedFrame;
 import com.velocitypowered.proxy.util.except.QuietDecoderException;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
@@ -54,6 +57,7 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.EventLoop;
+import io.netty.handler.codec.EncoderException;
 import io.netty.handler.codec.haproxy.HAProxyMessage;
 import io.netty.handler.timeout.ReadTimeoutException;
 import io.netty.util.ReferenceCountUtil;
@@ -61,6 +65,9 @@ import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.security.GeneralSecurityException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import org.apache.logging.log4j.LogManager;
@@ -75,6 +82,14 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
 
   private static final Logger logger = LogManager.getLogger(MinecraftConnection.class);
 
+  // How long writes wait for a flush, in microseconds. 0 flushes at the end of the current event
+  // loop iteration, a negative value flushes every write immediately.
+  private static final long FLUSH_CONSOLIDATION_MICROS = Long
+      .getLong("velocity.flush-consolidation-micros", 0);
+  // Pending writes are flushed right away once there are this many of them.
+  static final int FLUSH_CONSOLIDATION_MAX_PACKETS = Integer
+      .getInteger("velocity.flush-consolidation-max-packets", 256);
+
   private final Channel channel;
   private SocketAddress remoteAddress;
   private StateRegistry state;
@@ -84,6 +99,14 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
   public final VelocityServer server;
   private ConnectionType connectionType = ConnectionTypes.UNDETERMINED;
   private boolean knownDisconnect = false;
+  private int compressionThreshold = -1;
+
+  private final Runnable flushTask = this::consolidatedFlush;
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
+  private final AtomicInteger unflushedPackets = new AtomicInteger();
+  private final LongAdder flushes = new LongAdder();
+  private final LongAdder flushedPackets = new LongAdder();
+  private final long createdAt = System.nanoTime();
 
   /**
    * Initializes a new {@link MinecraftConnection} instance.
@@ -124,6 +147,7 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
 
   @Override
   public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+    boolean release = true;
     try {
       if (sessionHandler == null) {
         // No session handler available, do nothing
@@ -143,6 +167,10 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
         if (!pkt.handle(sessionHandler)) {
           sessionHandler.handleGeneric((MinecraftPacket) msg);
         }
+      } else if (msg instanceof CompressedFrame) {
+        // The session handler takes ownership of the frame
+        release = false;
+        sessionHandler.handleCompressedFrame((CompressedFrame) msg);
       } else if (msg instanceof HAProxyMessage) {
         HAProxyMessage proxyMessage = (HAProxyMessage) msg;
         this.remoteAddress = new InetSocketAddress(proxyMessage.sourceAddress(),
@@ -151,7 +179,9 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
         sessionHandler.handleUnknown((ByteBuf) msg);
       }
     } finally {
-      ReferenceCountUtil.release(msg);
+      if (release) {
+        ReferenceCountUtil.release(msg);
+      }
     }
   }
 
@@ -211,18 +241,63 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
   }
 
   /**
-   * Writes and immediately flushes a message to the connection.
+   * Writes a message to the connection. The flush is consolidated with the other writes made
+   * until the end of the current event loop iteration, or within the
+   * {@code velocity.flush-consolidation-micros} budget.
    *
    * @param msg the message to write
    */
   public void write(Object msg) {
     if (channel.isActive()) {
-      channel.writeAndFlush(msg, channel.voidPromise());
+      writeAndScheduleFlush(msg);
     } else {
       ReferenceCountUtil.release(msg);
     }
   }
 
+  /**
+   * Writes and immediately flushes a message to the connection, along with any write still
+   * waiting for its consolidated flush. Meant for time-sensitive packets such as keep-alives.
+   *
+   * @param msg the message to write
+   */
+  public void writeUrgent(Object msg) {
+    if (channel.isActive()) {
+      unflushedPackets.incrementAndGet();
+      channel.write(msg, channel.voidPromise());
+      flush();
+    } else {
+      ReferenceCountUtil.release(msg);
+    }
+  }
+
+  /**
+   * Writes a packet prepared for several connections, flushing it like {@link #write(Object)}.
+   * Connections in another state than the packet get the packet itself and encode it as usual.
+   *
+   * @param prepared the prepared packet to write
+   */
+  public void write(PreparedPacket prepared) {
+    if (!channel.isActive()) {
+      return;
+    }
+    if (state != prepared.getState()) {
+      write(prepared.getPacket());
+      return;
+    }
+
+    PreparedFrame frame;
+    try {
+      frame = prepared.frame(protocolVersion, compressionThreshold, channel.alloc(),
+          server.getConfiguration().getCompressionLevel());
+    } catch (EncoderException e) {
+      // Let the pipeline encode the packet and report the error for this connection.
+      write(prepared.getPacket());
+      return;
+    }
+    writeAndScheduleFlush(frame);
+  }
+
   /**
    * Writes, but does not flush, a message to the connection.
    *
@@ -230,6 +305,7 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
    */
   public void delayedWrite(Object msg) {
     if (channel.isActive()) {
+      unflushedPackets.incrementAndGet();
       channel.write(msg, channel.voidPromise());
     } else {
       ReferenceCountUtil.release(msg);
@@ -241,10 +317,86 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
    */
   public void flush() {
     if (channel.isActive()) {
+      int packets = unflushedPackets.getAndSet(0);
+      if (packets > 0) {
+        flushes.increment();
+        flushedPackets.add(packets);
+      }
       channel.flush();
     }
   }
 
+  private void writeAndScheduleFlush(Object msg) {
+    EventLoop eventLoop = channel.eventLoop();
+    if (!eventLoop.inEventLoop()) {
+      // The flush task scheduled by an earlier write could run before this write is queued, so
+      // write and schedule its flush together on the event loop.
+      eventLoop.execute(() -> writeAndScheduleFlush(msg));
+      return;
+    }
+    unflushedPackets.incrementAndGet();
+    channel.write(msg, channel.voidPromise());
+    scheduleFlush();
+  }
+
+  private void scheduleFlush() {
+    if (FLUSH_CONSOLIDATION_MICROS < 0
+        || unflushedPackets.get() >= FLUSH_CONSOLIDATION_MAX_PACKETS) {
+      flush();
+      return;
+    }
+    if (flushScheduled.compareAndSet(false, true)) {
+      if (FLUSH_CONSOLIDATION_MICROS == 0) {
+        channel.eventLoop().execute(flushTask);
+      } else {
+        channel.eventLoop().schedule(flushTask, FLUSH_CONSOLIDATION_MICROS, TimeUnit.MICROSECONDS);
+      }
+    }
+  }
+
+  private void consolidatedFlush() {
+    flushScheduled.set(false);
+    flush();
+  }
+
+  /**
+   * Returns the number of flushes that carried at least one packet on this connection.
+   *
+   * @return the number of flushes
+   */
+  public long getFlushCount() {
+    return flushes.sum();
+  }
+
+  /**
+   * Returns the number of packets flushed on this connection.
+   *
+   * @return the number of flushed packets
+   */
+  public long getFlushedPacketCount() {
+    return flushedPackets.sum();
+  }
+
+  /**
+   * Returns the average number of flushes per second since the connection was created.
+   *
+   * @return the flush rate
+   */
+  public double getFlushesPerSecond() {
+    double seconds = (System.nanoTime() - createdAt) / 1e9;
+    return seconds <= 0 ? 0 : flushes.sum() / seconds;
+  }
+
+  /**
+   * Returns the average number of packets written by each flush.
+   *
+   * @return the average number of packets per flush
+   */
+  public double getPacketsPerFlush() {
+    long count = flushes.sum();
+    return count == 0 ? 0 : (double) flushedPackets.sum() / count;
+  }
+
   /**
    * Closes the connection after writing the {@code msg}.
    *
@@ -415,6 +567,7 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
     ensureOpen();
     ensureInEventLoop();
 
+    this.compressionThreshold = threshold;
     if (threshold == -1) {
       final ChannelHandler removedDecoder = channel.pipeline().remove(COMPRESSION_DECODER);
       final ChannelHandler removedEncoder = channel.pipeline().remove(COMPRESSION_ENCODER);
@@ -448,6 +601,42 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
     }
   }
 
+  /**
+   * Returns the compression threshold in use on the connection, or {@code -1} if compression is
+   * disabled.
+   *
+   * @return the compression threshold
+   */
+  public int getCompressionThreshold() {
+    return compressionThreshold;
+  }
+
+  /**
+   * Toggles compressed passthrough on the connection. While enabled, compressed packets that the
+   * current state does not decode are not inflated, and are instead handed to the session handler
+   * as a {@link CompressedFrame} through
+   * {@link MinecraftSessionHandler#handleCompressedFrame(CompressedFrame)}. The session handler is
+   * responsible for writing them to a connection that has compression enabled.
+   *
+   * @param enabled whether compressed passthrough should be enabled
+   */
+  public void setCompressionPassthrough(boolean enabled) {
+    ensureInEventLoop();
+
+    MinecraftCompressDecoder decoder = (MinecraftCompressDecoder) channel.pipeline()
+        .get(COMPRESSION_DECODER);
+    if (decoder == null) {
+      return;
+    }
+
+    MinecraftDecoder minecraftDecoder = channel.pipeline().get(MinecraftDecoder.class);
+    if (enabled && minecraftDecoder != null) {
+      decoder.setPassthroughFilter(minecraftDecoder::isDecodable);
+    } else {
+      decoder.setPassthroughFilter(null);
+    }
+  }
+
   /**
    * Enables encryption on the connection.
    *
@@ -18,6 +18,7 @@
 package com.velocitypowered.proxy.connection;
 
 import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import com.velocitypowered.proxy.protocol.netty.CompressedFrame;
 import com.velocitypowered.proxy.protocol.packet.AvailableCommands;
 import com.velocitypowered.proxy.protocol.packet.BossBar;
 import com.velocitypowered.proxy.protocol.packet.ClientSettings;
@@ -80,6 +81,18 @@ public interface MinecraftSessionHandler {
 
   }
 
+  /**
+   * Handles a packet passed through still compressed. The session handler takes ownership of the
+   * frame and must release it, or write it to another connection.
+   *
+   * @param frame the compressed frame
+   */
+  default void handleCompressedFrame(CompressedFrame frame) {
+    frame.release();
+    throw new IllegalStateException(getClass().getSimpleName()
+        + " does not accept compressed passthrough frames (packet ID " + frame.getPacketId() + ")");
+  }
+
   default void connected() {
 
   }
@@ -39,6 +39,7 @@ import com.velocitypowered.proxy.connection.client.ClientPlaySessionHandler;
 import com.velocitypowered.proxy.connection.player.VelocityResourcePackInfo;
 import com.velocitypowered.proxy.connection.util.ConnectionMessages;
 import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import com.velocitypowered.proxy.protocol.netty.CompressedFrame;
 import com.velocitypowered.proxy.protocol.packet.AvailableCommands;
 import com.velocitypowered.proxy.protocol.packet.BossBar;
 import com.velocitypowered.proxy.protocol.packet.Disconnect;
@@ -72,6 +73,8 @@ public class BackendPlaySessionHandler implements MinecraftSessionHandler {
       .getBoolean("velocity.log-server-backpressure");
   private static final int MAXIMUM_PACKETS_TO_FLUSH = Integer
       .getInteger("velocity.max-packets-per-flush", 8192);
+  private static final boolean COMPRESSION_PASSTHROUGH = !Boolean
+      .getBoolean("velocity.disable-compression-passthrough");
 
   private final VelocityServer server;
   private final VelocityServerConnection serverConn;
@@ -101,12 +104,27 @@ public class BackendPlaySessionHandler implements MinecraftSessionHandler {
   public void activated() {
     serverConn.getServer().addPlayer(serverConn.getPlayer());
 
+    MinecraftConnection serverMc = serverConn.ensureConnected();
     if (server.getConfiguration().isBungeePluginChannelEnabled()) {
-      MinecraftConnection serverMc = serverConn.ensureConnected();
       serverMc.write(PluginMessageUtil.constructChannelsPacket(serverMc.getProtocolVersion(),
           ImmutableList.of(getBungeeCordChannel(serverMc.getProtocolVersion()))
       ));
     }
+
+    // If both sides are compressed, packets we don't care about can be handed to the player
+    // without being decompressed and compressed again.
+    if (COMPRESSION_PASSTHROUGH && serverMc.getCompressionThreshold() >= 0
+        && playerConnection.getCompressionThreshold() >= 0) {
+      serverMc.setCompressionPassthrough(true);
+    }
+  }
+
+  @Override
+  public void deactivated() {
+    MinecraftConnection serverMc = serverConn.getConnection();
+    if (serverMc != null && !serverMc.isClosed()) {
+      serverMc.setCompressionPassthrough(false);
+    }
   }
 
   @Override
@@ -228,7 +246,7 @@ public class BackendPlaySessionHandler implements MinecraftSessionHandler {
     byte[] copy = ByteBufUtil.getBytes(packet.content());
     PluginMessageEvent event = new PluginMessageEvent(serverConn, serverConn.getPlayer(), id,
         copy);
-    server.getEventManager().fire(event)
+    server.getEventManager().fire(event, playerConnection.eventLoop())
         .thenAcceptAsync(pme -> {
           if (pme.getResult().isAllowed() && !playerConnection.isClosed()) {
             PluginMessage copied = new PluginMessage(packet.getChannel(),
@@ -277,7 +295,8 @@ public class BackendPlaySessionHandler implements MinecraftSessionHandler {
     }
 
     server.getEventManager().fire(
-            new PlayerAvailableCommandsEvent(serverConn.getPlayer(), rootNode))
+            new PlayerAvailableCommandsEvent(serverConn.getPlayer(), rootNode),
+            playerConnection.eventLoop())
         .thenAcceptAsync(event -> playerConnection.write(commands), playerConnection.eventLoop())
         .exceptionally((ex) -> {
           logger.error("Exception while handling available commands for {}", playerConnection, ex);
@@ -324,6 +343,15 @@ public class BackendPlaySessionHandler implements MinecraftSessionHandler {
     }
   }
 
+  @Override
+  public void handleCompressedFrame(CompressedFrame frame) {
+    playerConnection.delayedWrite(frame);
+    if (++packetsFlushed >= MAXIMUM_PACKETS_TO_FLUSH) {
+      playerConnection.flush();
+      packetsFlushed = 0;
+    }
+  }
+
   @Override
   public void readCompleted() {
     playerConnection.flush();
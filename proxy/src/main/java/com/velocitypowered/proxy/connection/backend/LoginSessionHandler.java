@@ -17,10 +17,12 @@
 
 package com.velocitypowered.proxy.connection.backend;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.velocitypowered.api.event.player.ServerLoginPluginMessageEvent;
 import com.velocitypowered.api.network.ProtocolVersion;
 import com.velocitypowered.api.proxy.crypto.IdentifiedKey;
 import com.velocitypowered.api.proxy.messages.MinecraftChannelIdentifier;
+import com.velocitypowered.api.util.GameProfile;
 import com.velocitypowered.proxy.VelocityServer;
 import com.velocitypowered.proxy.config.PlayerInfoForwarding;
 import com.velocitypowered.proxy.config.VelocityConfiguration;
@@ -44,13 +46,14 @@ import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
 import javax.crypto.Mac;
-import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import net.kyori.adventure.text.Component;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Handles a player trying to log into the proxy.
@@ -62,6 +65,9 @@ public class LoginSessionHandler implements MinecraftSessionHandler {
   private static final Component MODERN_IP_FORWARDING_FAILURE = Component
       .translatable("velocity.error.modern-forwarding-failed");
 
+  private static final ThreadLocal<ForwardingMac> FORWARDING_MAC =
+      ThreadLocal.withInitial(ForwardingMac::new);
+
   private final VelocityServer server;
   private final VelocityServerConnection serverConn;
   private final CompletableFuture<Impl> resultFuture;
@@ -205,23 +211,47 @@ public class LoginSessionHandler implements MinecraftSessionHandler {
     return VelocityConstants.MODERN_FORWARDING_DEFAULT;
   }
 
-  private static ByteBuf createForwardingData(byte[] hmacSecret, String address,
+  @VisibleForTesting
+  static ByteBuf createForwardingData(byte[] hmacSecret, String address,
       ConnectedPlayer player, int requestedVersion) {
-    ByteBuf forwarded = Unpooled.buffer(2048);
+    int actualVersion = findForwardingVersion(requestedVersion, player);
+    GameProfile profile = player.getGameProfile();
+    IdentifiedKey key = player.getIdentifiedKey();
+
+    // Only the version and the signature change between server switches.
+    ForwardingBody body = player.getForwardingBody();
+    if (body == null || !body.matches(actualVersion, address, profile, key)) {
+      body = new ForwardingBody(actualVersion, address, profile, key,
+          encodeForwardingBody(actualVersion, address, profile, key));
+      player.setForwardingBody(body);
+    }
+
+    ByteBuf version = Unpooled.buffer(5);
+    ProtocolUtils.writeVarInt(version, actualVersion);
+    byte[] sig;
     try {
-      int actualVersion = findForwardingVersion(requestedVersion, player);
+      sig = FORWARDING_MAC.get().sign(hmacSecret, version, body.data);
+    } catch (InvalidKeyException e) {
+      version.release();
+      throw new RuntimeException("Unable to authenticate data", e);
+    }
+    return Unpooled.wrappedBuffer(Unpooled.wrappedBuffer(sig), version,
+        Unpooled.wrappedBuffer(body.data));
+  }
 
-      ProtocolUtils.writeVarInt(forwarded, actualVersion);
+  private static byte[] encodeForwardingBody(int actualVersion, String address,
+      GameProfile profile, @Nullable IdentifiedKey key) {
+    ByteBuf forwarded = Unpooled.buffer(2048);
+    try {
       ProtocolUtils.writeString(forwarded, address);
-      ProtocolUtils.writeUuid(forwarded, player.getGameProfile().getId());
-      ProtocolUtils.writeString(forwarded, player.getGameProfile().getName());
-      ProtocolUtils.writeProperties(forwarded, player.getGameProfile().getProperties());
+      ProtocolUtils.writeUuid(forwarded, profile.getId());
+      ProtocolUtils.writeString(forwarded, profile.getName());
+      ProtocolUtils.writeProperties(forwarded, profile.getProperties());
 
       // This serves as additional redundancy. The key normally is stored in the
       // login start to the server, but some setups require this.
       if (actualVersion >= VelocityConstants.MODERN_FORWARDING_WITH_KEY
           && actualVersion < VelocityConstants.MODERN_LAZY_SESSION) {
-        IdentifiedKey key = player.getIdentifiedKey();
         assert key != null;
         ProtocolUtils.writePlayerKey(forwarded, key);
 
@@ -239,21 +269,67 @@ public class LoginSessionHandler implements MinecraftSessionHandler {
           }
         }
       }
+      return ByteBufUtil.getBytes(forwarded);
+    } finally {
+      forwarded.release();
+    }
+  }
 
-      SecretKey key = new SecretKeySpec(hmacSecret, "HmacSHA256");
-      Mac mac = Mac.getInstance("HmacSHA256");
-      mac.init(key);
-      mac.update(forwarded.array(), forwarded.arrayOffset(), forwarded.readableBytes());
-      byte[] sig = mac.doFinal();
+  /**
+   * The forwarding data of a player following the version, as last sent to a server. It is kept
+   * by the {@link ConnectedPlayer} so it can be reused on the next server switch.
+   */
+  public static final class ForwardingBody {
 
-      return Unpooled.wrappedBuffer(Unpooled.wrappedBuffer(sig), forwarded);
-    } catch (InvalidKeyException e) {
-      forwarded.release();
-      throw new RuntimeException("Unable to authenticate data", e);
-    } catch (NoSuchAlgorithmException e) {
-      // Should never happen
-      forwarded.release();
-      throw new AssertionError(e);
+    private final int version;
+    private final String address;
+    private final GameProfile profile;
+    private final @Nullable IdentifiedKey key;
+    private final byte[] data;
+
+    private ForwardingBody(int version, String address, GameProfile profile,
+        @Nullable IdentifiedKey key, byte[] data) {
+      this.version = version;
+      this.address = address;
+      this.profile = profile;
+      this.key = key;
+      this.data = data;
+    }
+
+    boolean matches(int version, String address, GameProfile profile,
+        @Nullable IdentifiedKey key) {
+      return this.version == version && this.address.equals(address) && this.profile == profile
+          && this.key == key;
+    }
+  }
+
+  /**
+   * A {@link Mac} kept by a thread, only keyed again when the forwarding secret changes.
+   */
+  private static final class ForwardingMac {
+
+    private final Mac mac;
+    private byte @Nullable [] secret;
+
+    private ForwardingMac() {
+      try {
+        this.mac = Mac.getInstance("HmacSHA256");
+      } catch (NoSuchAlgorithmException e) {
+        // Should never happen
+        throw new AssertionError(e);
+      }
+    }
+
+    byte[] sign(byte[] secret, ByteBuf version, byte[] body) throws InvalidKeyException {
+      if (!Arrays.equals(this.secret, secret)) {
+        this.secret = null;
+        mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+        this.secret = secret.clone();
+      }
+      mac.update(version.array(), version.arrayOffset() + version.readerIndex(),
+          version.readableBytes());
+      mac.update(body);
+      return mac.doFinal();
     }
   }
 }
@@ -40,6 +40,7 @@ import com.velocitypowered.proxy.protocol.StateRegistry;
 import com.velocitypowered.proxy.protocol.packet.Handshake;
 import com.velocitypowered.proxy.protocol.packet.PluginMessage;
 import com.velocitypowered.proxy.protocol.packet.ServerLogin;
+import com.velocitypowered.proxy.protocol.util.EncodedCompoundTag;
 import com.velocitypowered.proxy.server.VelocityRegisteredServer;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -69,7 +70,7 @@ public class VelocityServerConnection implements MinecraftConnectionAssociation,
   private boolean gracefulDisconnect = false;
   private BackendConnectionPhase connectionPhase = BackendConnectionPhases.UNKNOWN;
   private final Map<Long, Long> pendingPings = new HashMap<>();
-  private @MonotonicNonNull CompoundBinaryTag activeDimensionRegistry;
+  private @MonotonicNonNull EncodedCompoundTag activeDimensionRegistry;
 
   /**
    * Initializes a new server connection.
@@ -344,11 +345,16 @@ public class VelocityServerConnection implements MinecraftConnectionAssociation,
     return hasCompletedJoin;
   }
 
-  public CompoundBinaryTag getActiveDimensionRegistry() {
-    return activeDimensionRegistry;
+  /**
+   * Gets the dimension registry sent by the server in its last JoinGame, parsing it if needed.
+   *
+   * @return the registry, or null if none was received (before 1.16)
+   */
+  public @Nullable CompoundBinaryTag getActiveDimensionRegistry() {
+    return activeDimensionRegistry == null ? null : activeDimensionRegistry.getTag();
   }
 
-  public void setActiveDimensionRegistry(CompoundBinaryTag activeDimensionRegistry) {
+  public void setActiveDimensionRegistry(EncodedCompoundTag activeDimensionRegistry) {
     this.activeDimensionRegistry = activeDimensionRegistry;
   }
 }
@@ -176,7 +176,7 @@ public class ClientPlaySessionHandler implements MinecraftSessionHandler {
         MinecraftConnection smc = serverConnection.getConnection();
         if (smc != null) {
           player.setPing(System.currentTimeMillis() - sentTime);
-          smc.write(packet);
+          smc.writeUrgent(packet);
         }
       }
     }
@@ -351,7 +351,7 @@ public class ClientPlaySessionHandler implements MinecraftSessionHandler {
           } else {
             byte[] copy = ByteBufUtil.getBytes(packet.content());
             PluginMessageEvent event = new PluginMessageEvent(player, serverConn, id, copy);
-            server.getEventManager().fire(event).thenAcceptAsync(pme -> {
+            server.getEventManager().fire(event, backendConn.eventLoop()).thenAcceptAsync(pme -> {
               if (pme.getResult().isAllowed()) {
                 PluginMessage message = new PluginMessage(packet.getChannel(),
                     Unpooled.wrappedBuffer(copy));
@@ -473,7 +473,7 @@ public class ClientPlaySessionHandler implements MinecraftSessionHandler {
       }
     }
 
-    destination.setActiveDimensionRegistry(joinGame.getRegistry()); // 1.16
+    destination.setActiveDimensionRegistry(joinGame.getEncodedRegistry()); // 1.16
 
     // Remove previous boss bars. These don't get cleared when sending JoinGame, thus the need to
     // track them.
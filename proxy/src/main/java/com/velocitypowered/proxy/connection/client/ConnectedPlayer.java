@@ -52,6 +52,7 @@ import com.velocitypowered.api.util.ModInfo;
 import com.velocitypowered.proxy.VelocityServer;
 import com.velocitypowered.proxy.connection.MinecraftConnection;
 import com.velocitypowered.proxy.connection.MinecraftConnectionAssociation;
+import com.velocitypowered.proxy.connection.backend.LoginSessionHandler.ForwardingBody;
 import com.velocitypowered.proxy.connection.backend.VelocityServerConnection;
 import com.velocitypowered.proxy.connection.player.VelocityResourcePackInfo;
 import com.velocitypowered.proxy.connection.util.ConnectionMessages;
@@ -172,6 +173,7 @@ public class ConnectedPlayer implements MinecraftConnectionAssociation, Player,
   private @Nullable String clientBrand;
   private @Nullable Locale effectiveLocale;
   private @Nullable IdentifiedKey playerKey;
+  private volatile @Nullable ForwardingBody forwardingBody;
   private final ChatQueue chatQueue;
   private final ChatBuilderFactory chatBuilderFactory;
 
@@ -1080,7 +1082,7 @@ public class ConnectedPlayer implements MinecraftConnectionAssociation, Player,
     if (connection.getState() == StateRegistry.PLAY) {
       KeepAlive keepAlive = new KeepAlive();
       keepAlive.setRandomId(ThreadLocalRandom.current().nextLong());
-      connection.write(keepAlive);
+      connection.writeUrgent(keepAlive);
     }
   }
 
@@ -1117,6 +1119,14 @@ public class ConnectedPlayer implements MinecraftConnectionAssociation, Player,
     return playerKey;
   }
 
+  public @Nullable ForwardingBody getForwardingBody() {
+    return forwardingBody;
+  }
+
+  public void setForwardingBody(ForwardingBody forwardingBody) {
+    this.forwardingBody = forwardingBody;
+  }
+
   private class IdentityImpl implements Identity {
 
     @Override
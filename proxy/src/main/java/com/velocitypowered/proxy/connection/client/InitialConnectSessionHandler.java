@@ -76,7 +76,7 @@ public class InitialConnectSessionHandler implements MinecraftSessionHandler {
       byte[] copy = ByteBufUtil.getBytes(packet.content());
       PluginMessageEvent event = new PluginMessageEvent(serverConn, serverConn.getPlayer(), id,
           copy);
-      server.getEventManager().fire(event)
+      server.getEventManager().fire(event, player.getConnection().eventLoop())
           .thenAcceptAsync(pme -> {
             if (pme.getResult().isAllowed() && serverConn.isActive()) {
               PluginMessage copied = new PluginMessage(packet.getChannel(),
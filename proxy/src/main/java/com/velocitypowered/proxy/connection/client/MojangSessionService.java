@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.connection.client;
+
+import static com.google.common.net.UrlEscapers.urlFormParameterEscaper;
+import static com.velocitypowered.proxy.VelocityServer.GENERAL_GSON;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.gson.JsonObject;
+import com.velocitypowered.api.util.GameProfile;
+import com.velocitypowered.proxy.util.LatencyHistogram;
+import com.velocitypowered.proxy.util.except.QuietRuntimeException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.Response;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Asks the session server whether players joining in online mode have authenticated with Mojang.
+ *
+ * <p>At most {@code velocity.auth-max-in-flight} requests are sent at once, the others wait in a
+ * bounded queue and are dropped once they waited longer than {@code velocity.auth-queue-deadline}
+ * milliseconds, as the client gives up on the login anyway. Identical requests in flight are
+ * coalesced, and verified profiles are kept for a short while.</p>
+ */
+public final class MojangSessionService {
+
+  private static final String DEFAULT_URL = System.getProperty("mojang.sessionserver",
+      "https://sessionserver.mojang.com/session/minecraft/hasJoined");
+  private static final int DEFAULT_MAX_IN_FLIGHT = Integer
+      .getInteger("velocity.auth-max-in-flight", 32);
+  private static final int DEFAULT_MAX_QUEUED = Integer
+      .getInteger("velocity.auth-max-queued", 1024);
+  private static final long DEFAULT_QUEUE_DEADLINE = Long
+      .getLong("velocity.auth-queue-deadline", 10_000);
+  private static final long DEFAULT_CACHE_SECONDS = Long.getLong("velocity.auth-cache-seconds", 30);
+
+  static final QuietRuntimeException QUEUE_FULL = new QuietRuntimeException(
+      "Too many session server requests are waiting");
+  static final QuietRuntimeException DEADLINE_EXCEEDED = new QuietRuntimeException(
+      "Waited too long for a session server request slot");
+
+  private final Supplier<AsyncHttpClient> httpClient;
+  private final String urlFormat;
+  private final int maxInFlight;
+  private final int maxQueued;
+  private final long queueDeadlineMillis;
+  private final long queueDeadlineNanos;
+  private final Cache<RequestKey, GameProfile> verifiedProfiles;
+  private final Map<RequestKey, CompletableFuture<Result>> pendingRequests =
+      new ConcurrentHashMap<>();
+  private final Queue<QueuedRequest> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final LongAdder verified = new LongAdder();
+  private final LongAdder notJoined = new LongAdder();
+  private final LongAdder unexpectedStatus = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder shed = new LongAdder();
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  public MojangSessionService(Supplier<AsyncHttpClient> httpClient) {
+    this(httpClient, DEFAULT_URL, DEFAULT_MAX_IN_FLIGHT, DEFAULT_MAX_QUEUED,
+        DEFAULT_QUEUE_DEADLINE, DEFAULT_CACHE_SECONDS);
+  }
+
+  MojangSessionService(Supplier<AsyncHttpClient> httpClient, String url, int maxInFlight,
+      int maxQueued, long queueDeadlineMillis, long cacheSeconds) {
+    this.httpClient = httpClient;
+    this.urlFormat = url.concat("?username=%s&serverId=%s");
+    this.maxInFlight = Math.max(1, maxInFlight);
+    this.maxQueued = Math.max(0, maxQueued);
+    this.queueDeadlineMillis = queueDeadlineMillis;
+    this.queueDeadlineNanos = TimeUnit.MILLISECONDS.toNanos(queueDeadlineMillis);
+    this.verifiedProfiles = Caffeine.newBuilder()
+        .expireAfterWrite(Duration.ofSeconds(cacheSeconds))
+        .build();
+  }
+
+  /**
+   * Asks the session server whether a player has joined the proxy.
+   *
+   * @param username the username sent by the player
+   * @param serverId the server ID hash of the login
+   * @param ip the address of the player, or {@code null} to not have the session server check it
+   * @return a future with the session server answer, failed with a {@link QuietRuntimeException}
+   *         if the request was dropped because the session server is too slow
+   */
+  public CompletableFuture<Result> hasJoined(String username, String serverId,
+      @Nullable String ip) {
+    RequestKey key = new RequestKey(username, serverId, ip);
+    GameProfile profile = verifiedProfiles.getIfPresent(key);
+    if (profile != null) {
+      cacheHits.increment();
+      return CompletableFuture.completedFuture(new Result(200, profile));
+    }
+
+    CompletableFuture<Result> future = new CompletableFuture<>();
+    CompletableFuture<Result> pending = pendingRequests.putIfAbsent(key, future);
+    if (pending != null) {
+      coalesced.increment();
+      return pending;
+    }
+
+    QueuedRequest request = new QueuedRequest(key, future, System.nanoTime());
+    if (queued.incrementAndGet() > maxQueued) {
+      queued.decrementAndGet();
+      shed.increment();
+      complete(request, null, QUEUE_FULL);
+      return future;
+    }
+    queue.add(request);
+    drain();
+    if (!request.sent) {
+      // Fail the request on time even if no request in flight completes in the meantime.
+      CompletableFuture.delayedExecutor(queueDeadlineMillis, TimeUnit.MILLISECONDS)
+          .execute(() -> expire(request));
+    }
+    return future;
+  }
+
+  private void expire(QueuedRequest request) {
+    // Whoever removes the request from the queue, this or drain(), is the one to complete it.
+    if (queue.remove(request)) {
+      queued.decrementAndGet();
+      shed.increment();
+      complete(request, null, DEADLINE_EXCEEDED);
+    }
+  }
+
+  private void drain() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= maxInFlight) {
+        return;
+      }
+      if (!inFlight.compareAndSet(current, current + 1)) {
+        continue;
+      }
+
+      QueuedRequest request = queue.poll();
+      if (request == null) {
+        inFlight.decrementAndGet();
+        // Another thread may have queued a request after our poll.
+        if (queue.isEmpty()) {
+          return;
+        }
+        continue;
+      }
+      queued.decrementAndGet();
+      request.sent = true;
+
+      if (System.nanoTime() - request.queuedAt > queueDeadlineNanos) {
+        inFlight.decrementAndGet();
+        shed.increment();
+        complete(request, null, DEADLINE_EXCEEDED);
+        continue;
+      }
+      send(request);
+    }
+  }
+
+  private void send(QueuedRequest request) {
+    RequestKey key = request.key;
+    String url = String.format(urlFormat, urlFormParameterEscaper().escape(key.username),
+        key.serverId);
+    if (key.ip != null) {
+      url += "&ip=" + urlFormParameterEscaper().escape(key.ip);
+    }
+
+    long start = System.nanoTime();
+    CompletableFuture<Response> response;
+    try {
+      response = httpClient.get().prepareGet(url).execute().toCompletableFuture();
+    } catch (RuntimeException e) {
+      response = CompletableFuture.failedFuture(e);
+    }
+    response.whenComplete((httpResponse, throwable) -> {
+      latency.record(System.nanoTime() - start);
+      inFlight.decrementAndGet();
+      try {
+        if (throwable != null) {
+          failures.increment();
+          complete(request, null, throwable);
+        } else if (httpResponse.getStatusCode() == 200) {
+          GameProfile profile = GENERAL_GSON.fromJson(httpResponse.getResponseBody(),
+              GameProfile.class);
+          verified.increment();
+          verifiedProfiles.put(key, profile);
+          complete(request, new Result(200, profile), null);
+        } else {
+          if (httpResponse.getStatusCode() == 204) {
+            notJoined.increment();
+          } else {
+            unexpectedStatus.increment();
+          }
+          complete(request, new Result(httpResponse.getStatusCode(), null), null);
+        }
+      } catch (RuntimeException e) {
+        failures.increment();
+        complete(request, null, e);
+      }
+      drain();
+    });
+  }
+
+  private void complete(QueuedRequest request, @Nullable Result result,
+      @Nullable Throwable throwable) {
+    pendingRequests.remove(request.key, request.future);
+    if (throwable != null) {
+      request.future.completeExceptionally(throwable);
+    } else {
+      request.future.complete(result);
+    }
+  }
+
+  /**
+   * Creates a {@link JsonObject} with the request statistics of this service.
+   *
+   * @return the statistics
+   */
+  public JsonObject getStatistics() {
+    JsonObject statistics = new JsonObject();
+    statistics.addProperty("inFlight", inFlight.get());
+    statistics.addProperty("queued", queued.get());
+    statistics.addProperty("verified", verified.sum());
+    statistics.addProperty("notJoined", notJoined.sum());
+    statistics.addProperty("unexpectedStatus", unexpectedStatus.sum());
+    statistics.addProperty("failures", failures.sum());
+    statistics.addProperty("shed", shed.sum());
+    statistics.addProperty("cacheHits", cacheHits.sum());
+    statistics.addProperty("coalesced", coalesced.sum());
+    statistics.add("latency", latency.toJson());
+    return statistics;
+  }
+
+  /**
+   * The answer of the session server.
+   *
+   * @param statusCode the HTTP status code, 200 if the player joined and 204 if they didn't
+   * @param profile the profile of the player if they joined
+   */
+  public record Result(int statusCode, @Nullable GameProfile profile) {
+
+  }
+
+  private record RequestKey(String username, String serverId, @Nullable String ip) {
+
+  }
+
+  private static final class QueuedRequest {
+
+    private final RequestKey key;
+    private final CompletableFuture<Result> future;
+    private final long queuedAt;
+    private volatile boolean sent;
+
+    private QueuedRequest(RequestKey key, CompletableFuture<Result> future, long queuedAt) {
+      this.key = key;
+      this.future = future;
+      this.queuedAt = queuedAt;
+    }
+  }
+}
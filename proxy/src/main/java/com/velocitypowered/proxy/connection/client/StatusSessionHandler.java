@@ -22,6 +22,7 @@ import com.velocitypowered.proxy.VelocityServer;
 import com.velocitypowered.proxy.connection.MinecraftConnection;
 import com.velocitypowered.proxy.connection.MinecraftSessionHandler;
 import com.velocitypowered.proxy.connection.util.VelocityInboundConnection;
+import com.velocitypowered.proxy.protocol.netty.PreparedFrame;
 import com.velocitypowered.proxy.protocol.packet.LegacyDisconnect;
 import com.velocitypowered.proxy.protocol.packet.LegacyPing;
 import com.velocitypowered.proxy.protocol.packet.StatusPing;
@@ -91,15 +92,17 @@ public class StatusSessionHandler implements MinecraftSessionHandler {
     }
     this.pingReceived = true;
 
+    PreparedFrame prepared = server.getServerListPingHandler().getPreparedStatus(inbound);
+    if (prepared != null) {
+      connection.write(prepared);
+      return true;
+    }
+
     this.server.getServerListPingHandler().getInitialPing(inbound)
         .thenCompose(ping -> server.getEventManager().fire(new ProxyPingEvent(inbound, ping)))
         .thenAcceptAsync(
-            (event) -> {
-              StringBuilder json = new StringBuilder();
-              VelocityServer.getPingGsonInstance(connection.getProtocolVersion())
-                  .toJson(event.getPing(), json);
-              connection.write(new StatusResponse(json));
-            },
+            (event) -> connection.write(new StatusResponse(
+                server.getServerListPingHandler().serializePing(inbound, event.getPing()))),
             connection.eventLoop())
         .exceptionally((ex) -> {
           logger.error("Exception while handling status request {}", packet, ex);
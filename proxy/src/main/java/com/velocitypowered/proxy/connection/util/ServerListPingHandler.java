@@ -19,6 +19,7 @@ package com.velocitypowered.proxy.connection.util;
 
 import com.google.common.collect.ImmutableList;
 import com.spotify.futures.CompletableFutures;
+import com.velocitypowered.api.event.proxy.ProxyPingEvent;
 import com.velocitypowered.api.network.ProtocolVersion;
 import com.velocitypowered.api.proxy.server.PingOptions;
 import com.velocitypowered.api.proxy.server.RegisteredServer;
@@ -27,20 +28,40 @@ import com.velocitypowered.api.util.ModInfo;
 import com.velocitypowered.proxy.VelocityServer;
 import com.velocitypowered.proxy.config.PingPassthroughMode;
 import com.velocitypowered.proxy.config.VelocityConfiguration;
+import com.velocitypowered.proxy.protocol.PreparedPacket;
+import com.velocitypowered.proxy.protocol.StateRegistry;
+import com.velocitypowered.proxy.protocol.netty.PreparedFrame;
+import com.velocitypowered.proxy.protocol.packet.StatusResponse;
 import com.velocitypowered.proxy.server.VelocityRegisteredServer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Common utilities for handling server list ping results.
  */
 public class ServerListPingHandler {
 
+  // The player count shown by prepared status responses is only updated once it changed by this
+  // many players.
+  private static final int STATUS_PLAYER_COUNT_GRANULARITY = Math.max(1,
+      Integer.getInteger("velocity.status-player-count-granularity", 1));
+
   private final VelocityServer server;
+  private final Map<ProtocolVersion, PreparedStatus> preparedStatuses = new ConcurrentHashMap<>();
+  private final Map<PingKey, CachedPing> pingCache = new ConcurrentHashMap<>();
+  private final Map<PingKey, CompletableFuture<ServerPing>> pendingPings =
+      new ConcurrentHashMap<>();
 
   public ServerListPingHandler(VelocityServer server) {
     this.server = server;
@@ -152,7 +173,168 @@ public class ServerListPingHandler {
           .orElse("");
       List<String> serversToTry = server.getConfiguration().getForcedHosts().getOrDefault(
           virtualHostStr, server.getConfiguration().getAttemptConnectionOrder());
-      return attemptPingPassthrough(connection, passthroughMode, serversToTry, shownVersion);
+      long ttl = TimeUnit.MILLISECONDS.toNanos(configuration.getPingPassthroughCacheTtl());
+      if (ttl <= 0) {
+        return attemptPingPassthrough(connection, passthroughMode, serversToTry, shownVersion);
+      }
+
+      PingKey key = pingKey(virtualHostStr, connection.getProtocolVersion(), passthroughMode);
+      CachedPing cached = pingCache.get(key);
+      if (cached != null) {
+        long age = System.nanoTime() - cached.fetchedAt;
+        if (age < ttl) {
+          return CompletableFuture.completedFuture(cached.ping);
+        }
+        long staleTtl = TimeUnit.MILLISECONDS.toNanos(configuration.getPingPassthroughStaleTtl());
+        if (age < ttl + staleTtl) {
+          // Serve the stale result while the backend servers are pinged again.
+          refreshPing(key, connection, passthroughMode, serversToTry, shownVersion);
+          return CompletableFuture.completedFuture(cached.ping);
+        }
+      }
+      return refreshPing(key, connection, passthroughMode, serversToTry, shownVersion);
+    }
+  }
+
+  /**
+   * Returns the status response for a connection when nothing can alter it, that is when ping
+   * passthrough is disabled and no plugin listens to {@link ProxyPingEvent}. The response is
+   * framed once per protocol version into an immutable buffer shared by all the connections, and
+   * replaced when the configuration is reloaded or the player count changes. Frames already handed
+   * out keep the buffer they were created from.
+   *
+   * @param connection the connection requesting the status
+   * @return the framed status response, or {@code null} if the status must go through
+   *         {@link #getInitialPing(VelocityInboundConnection)} and the event
+   */
+  public @Nullable PreparedFrame getPreparedStatus(VelocityInboundConnection connection) {
+    VelocityConfiguration configuration = server.getConfiguration();
+    ProtocolVersion version = connection.getProtocolVersion();
+    if (configuration.getPingPassthrough() != PingPassthroughMode.DISABLED
+        || !ProtocolVersion.isSupported(version)
+        || server.getEventManager().hasSubscribers(ProxyPingEvent.class)) {
+      return null;
+    }
+
+    int playerCount = server.getPlayerCount();
+    PreparedStatus status = preparedStatuses.get(version);
+    if (status == null || !status.isValid(configuration, playerCount)) {
+      status = preparedStatuses.compute(version, (v, current) -> {
+        if (current != null && current.isValid(configuration, playerCount)) {
+          return current;
+        }
+        String json = VelocityServer.getPingGsonInstance(version).toJson(constructLocalPing(v));
+        return new PreparedStatus(configuration, playerCount, frameStatus(v, json));
+      });
+    }
+    return new PreparedFrame(-1, status.frame.duplicate());
+  }
+
+  private static ByteBuf frameStatus(ProtocolVersion version, String json) {
+    try (PreparedPacket packet = new PreparedPacket(StateRegistry.STATUS,
+        new StatusResponse(json))) {
+      PreparedFrame frame = packet.frame(version, -1, ByteBufAllocator.DEFAULT, -1);
+      try {
+        // A heap copy needs no release, so replaced frames are simply left to the GC.
+        return Unpooled.unreleasableBuffer(Unpooled.copiedBuffer(frame.content()).asReadOnly());
+      } finally {
+        frame.release();
+      }
+    }
+  }
+
+  private CompletableFuture<ServerPing> refreshPing(PingKey key,
+      VelocityInboundConnection connection, PingPassthroughMode mode, List<String> servers,
+      ProtocolVersion responseProtocolVersion) {
+    // Only one refresh per key, the other requests wait for its result.
+    CompletableFuture<ServerPing> result = new CompletableFuture<>();
+    CompletableFuture<ServerPing> pending = pendingPings.putIfAbsent(key, result);
+    if (pending != null) {
+      return pending;
+    }
+
+    attemptPingPassthrough(connection, mode, servers, responseProtocolVersion)
+        .whenComplete((ping, ex) -> {
+          if (ex == null) {
+            pingCache.put(key, new CachedPing(ping, System.nanoTime()));
+          }
+          pendingPings.remove(key, result);
+          if (ex == null) {
+            result.complete(ping);
+          } else {
+            result.completeExceptionally(ex);
+          }
+        });
+    return result;
+  }
+
+  /**
+   * Serializes a server list ping for a connection. Pings that are still the cached ping
+   * passthrough result are only serialized once.
+   *
+   * @param connection the connection the ping is sent to
+   * @param ping the ping to serialize
+   * @return the ping JSON
+   */
+  public String serializePing(VelocityInboundConnection connection, ServerPing ping) {
+    ProtocolVersion version = connection.getProtocolVersion();
+    CachedPing cached = findCachedPing(connection, ping);
+    if (cached == null) {
+      return VelocityServer.getPingGsonInstance(version).toJson(ping);
+    }
+    String json = cached.json;
+    if (json == null) {
+      json = VelocityServer.getPingGsonInstance(version).toJson(ping);
+      cached.json = json;
+    }
+    return json;
+  }
+
+  private @Nullable CachedPing findCachedPing(VelocityInboundConnection connection,
+      ServerPing ping) {
+    PingPassthroughMode mode = server.getConfiguration().getPingPassthrough();
+    if (mode == PingPassthroughMode.DISABLED || pingCache.isEmpty()) {
+      return null;
+    }
+    String virtualHostStr = connection.getVirtualHost().map(InetSocketAddress::getHostString)
+        .map(str -> str.toLowerCase(Locale.ROOT))
+        .orElse("");
+    CachedPing cached = pingCache.get(
+        pingKey(virtualHostStr, connection.getProtocolVersion(), mode));
+    // Plugins may have replaced the ping in the ProxyPingEvent.
+    return cached != null && cached.ping == ping ? cached : null;
+  }
+
+  private PingKey pingKey(String virtualHost, ProtocolVersion version, PingPassthroughMode mode) {
+    // Hosts that aren't forced hosts all ping the same servers, so they share their results
+    // and arbitrary hostnames can't grow the cache.
+    String forcedHost = server.getConfiguration().getForcedHosts().containsKey(virtualHost)
+        ? virtualHost : "";
+    return new PingKey(forcedHost, version, mode);
+  }
+
+  private record PingKey(String virtualHost, ProtocolVersion version, PingPassthroughMode mode) {
+
+  }
+
+  private record PreparedStatus(VelocityConfiguration configuration, int playerCount,
+      ByteBuf frame) {
+
+    boolean isValid(VelocityConfiguration currentConfiguration, int currentPlayerCount) {
+      return configuration == currentConfiguration
+          && Math.abs(currentPlayerCount - playerCount) < STATUS_PLAYER_COUNT_GRANULARITY;
+    }
+  }
+
+  private static final class CachedPing {
+
+    private final ServerPing ping;
+    private final long fetchedAt;
+    private volatile @Nullable String json;
+
+    private CachedPing(ServerPing ping, long fetchedAt) {
+      this.ping = ping;
+      this.fetchedAt = fetchedAt;
     }
   }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.event;
+
+import com.google.gson.JsonObject;
+import com.velocitypowered.proxy.util.LatencyHistogram;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, usually because they block
+ * inside a {@code synchronized} block or a native call. A pinned virtual thread holds on to a
+ * platform thread just like a pooled thread would, so these are the places a plugin should fix
+ * to benefit from virtual threads. The pins are observed through the
+ * {@code jdk.VirtualThreadPinned} JFR event.
+ */
+final class PinnedThreadMonitor implements AutoCloseable {
+
+  private static final Logger logger = LogManager.getLogger(PinnedThreadMonitor.class);
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+  private final RecordingStream stream;
+  private final LatencyHistogram durations = new LatencyHistogram();
+  private final Map<String, LongAdder> pinsByLocation = new ConcurrentHashMap<>();
+
+  private PinnedThreadMonitor(final RecordingStream stream) {
+    this.stream = stream;
+  }
+
+  /**
+   * Starts monitoring pinned virtual threads.
+   *
+   * @param threshold the minimum duration of the pins to report
+   * @return the monitor, or {@code null} if JFR is not available
+   */
+  static @Nullable PinnedThreadMonitor start(final Duration threshold) {
+    try {
+      final RecordingStream stream = new RecordingStream();
+      stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+      final PinnedThreadMonitor monitor = new PinnedThreadMonitor(stream);
+      stream.onEvent(PINNED_EVENT, monitor::onPinned);
+      stream.startAsync();
+      return monitor;
+    } catch (final RuntimeException | LinkageError e) {
+      logger.warn("Unable to monitor pinned virtual threads", e);
+      return null;
+    }
+  }
+
+  private void onPinned(final RecordedEvent event) {
+    durations.record(event.getDuration().toNanos());
+    final String location = describe(event.getStackTrace());
+    pinsByLocation.computeIfAbsent(location, k -> {
+      // Only the first pin at each location is logged, the others are counted
+      final RecordedThread thread = event.getThread();
+      logger.warn("Virtual thread {} was pinned to its carrier thread for {} ms at {}",
+          thread == null ? "unknown" : thread.getJavaName(), event.getDuration().toMillis(),
+          location);
+      return new LongAdder();
+    }).increment();
+  }
+
+  /**
+   * Finds the frame most likely responsible for the pin, which is the topmost one outside of the
+   * JDK and Velocity, that is, in plugin code.
+   */
+  private static String describe(final @Nullable RecordedStackTrace stackTrace) {
+    if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+      return "unknown";
+    }
+    RecordedFrame culprit = stackTrace.getFrames().get(0);
+    for (final RecordedFrame frame : stackTrace.getFrames()) {
+      final String type = frame.getMethod().getType().getName();
+      if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")
+          && !type.startsWith("com.velocitypowered.")) {
+        culprit = frame;
+        break;
+      }
+    }
+    return culprit.getMethod().getType().getName() + '.' + culprit.getMethod().getName()
+        + (culprit.getLineNumber() > 0 ? ":" + culprit.getLineNumber() : "");
+  }
+
+  JsonObject getStatistics() {
+    final JsonObject json = durations.toJson();
+    final JsonObject locations = new JsonObject();
+    pinsByLocation.forEach((location, pins) -> locations.addProperty(location, pins.sum()));
+    json.add("locations", locations);
+    return json;
+  }
+
+  @Override
+  public void close() {
+    stream.close();
+  }
+}
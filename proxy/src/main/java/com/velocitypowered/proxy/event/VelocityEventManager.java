@@ -26,6 +26,7 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
 import com.google.common.reflect.TypeToken;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonObject;
 import com.velocitypowered.api.event.Continuation;
 import com.velocitypowered.api.event.EventHandler;
 import com.velocitypowered.api.event.EventManager;
@@ -37,11 +38,14 @@ import com.velocitypowered.api.plugin.PluginManager;
 import com.velocitypowered.proxy.event.UntargetedEventHandler.EventTaskHandler;
 import com.velocitypowered.proxy.event.UntargetedEventHandler.VoidHandler;
 import com.velocitypowered.proxy.event.UntargetedEventHandler.WithContinuationHandler;
+import com.velocitypowered.proxy.util.VirtualThreads;
+import io.netty.channel.EventLoop;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -54,8 +58,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -72,11 +78,28 @@ import org.lanternpowered.lmbda.LambdaType;
 
 /**
  * Implements the Velocity event handler.
+ *
+ * <p>With {@code -Dvelocity.event-executor=virtual}, async handlers and continuations run on
+ * virtual threads when the runtime supports them, so that handlers blocking on I/O do not hold a
+ * platform thread each. Virtual threads pinned to their carrier thread for longer than
+ * {@code velocity.event-pinned-threshold} milliseconds are reported.</p>
+ *
+ * <p>At most {@code velocity.event-plugin-concurrency} async handlers of the same plugin run at
+ * once. Events fired from such a handler are not limited, as the handler may be waiting for them
+ * while it holds its plugin's permit.</p>
  */
 public class VelocityEventManager implements EventManager {
 
   private static final Logger logger = LogManager.getLogger(VelocityEventManager.class);
 
+  private static final String ASYNC_THREAD_NAME = "Velocity Async Event Executor - #";
+  private static final boolean VIRTUAL_THREADS = "virtual"
+      .equalsIgnoreCase(System.getProperty("velocity.event-executor", "pooled"));
+  private static final int PLUGIN_CONCURRENCY = Integer
+      .getInteger("velocity.event-plugin-concurrency", 64);
+  private static final int PINNED_THRESHOLD_MILLIS = Integer
+      .getInteger("velocity.event-pinned-threshold", 20);
+
   private static final MethodHandles.Lookup methodHandlesLookup = MethodHandles.lookup();
   private static final LambdaType<EventTaskHandler> untargetedEventTaskHandlerType =
       LambdaType.of(EventTaskHandler.class);
@@ -88,7 +111,14 @@ public class VelocityEventManager implements EventManager {
   private static final Comparator<HandlerRegistration> handlerComparator =
       Comparator.comparingInt(o -> o.order);
 
+  // Whether the current thread runs an async handler, the events it fires are not limited
+  private static final ThreadLocal<Boolean> inAsyncHandler = ThreadLocal.withInitial(() -> false);
+
   private final ExecutorService asyncExecutor;
+  private final boolean virtualThreads;
+  private final int pluginConcurrency;
+  private final Map<PluginContainer, Semaphore> pluginPermits = new ConcurrentHashMap<>();
+  private final @Nullable PinnedThreadMonitor pinnedThreadMonitor;
   private final PluginManager pluginManager;
 
   private final ListMultimap<Class<?>, HandlerRegistration> handlersByType =
@@ -110,10 +140,37 @@ public class VelocityEventManager implements EventManager {
    * @param pluginManager a reference to the Velocity plugin manager
    */
   public VelocityEventManager(final PluginManager pluginManager) {
+    this(pluginManager, VIRTUAL_THREADS, PLUGIN_CONCURRENCY);
+  }
+
+  /**
+   * Initializes the Velocity event manager.
+   *
+   * @param pluginManager a reference to the Velocity plugin manager
+   * @param virtualThreads whether async handlers should run on virtual threads
+   * @param pluginConcurrency the maximum number of async handlers of a plugin running at once
+   */
+  VelocityEventManager(final PluginManager pluginManager, final boolean virtualThreads,
+      final int pluginConcurrency) {
     this.pluginManager = pluginManager;
-    this.asyncExecutor = Executors
-        .newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactoryBuilder()
-            .setNameFormat("Velocity Async Event Executor - #%d").setDaemon(true).build());
+    final ExecutorService virtualThreadExecutor = virtualThreads
+        ? VirtualThreads.newThreadPerTaskExecutor(ASYNC_THREAD_NAME) : null;
+    if (virtualThreadExecutor != null) {
+      this.asyncExecutor = virtualThreadExecutor;
+      this.pinnedThreadMonitor = PinnedThreadMonitor
+          .start(Duration.ofMillis(PINNED_THRESHOLD_MILLIS));
+    } else {
+      if (virtualThreads) {
+        logger.warn("Virtual threads are not available on this Java version, async event "
+            + "handlers will run on a thread pool instead.");
+      }
+      this.asyncExecutor = Executors
+          .newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactoryBuilder()
+              .setNameFormat(ASYNC_THREAD_NAME + "%d").setDaemon(true).build());
+      this.pinnedThreadMonitor = null;
+    }
+    this.virtualThreads = virtualThreadExecutor != null;
+    this.pluginConcurrency = pluginConcurrency;
   }
 
   /**
@@ -139,6 +196,7 @@ public class VelocityEventManager implements EventManager {
     final short order;
     final Class<?> eventType;
     final EventHandler<Object> handler;
+    final AsyncType asyncType;
 
     /**
      * The instance of the {@link EventHandler} or the listener instance that was registered.
@@ -146,12 +204,14 @@ public class VelocityEventManager implements EventManager {
     final Object instance;
 
     public HandlerRegistration(final PluginContainer plugin, final short order,
-        final Class<?> eventType, final Object instance, final EventHandler<Object> handler) {
+        final Class<?> eventType, final Object instance, final EventHandler<Object> handler,
+        final AsyncType asyncType) {
       this.plugin = plugin;
       this.order = order;
       this.eventType = eventType;
       this.instance = instance;
       this.handler = handler;
+      this.asyncType = asyncType;
     }
   }
 
@@ -161,16 +221,19 @@ public class VelocityEventManager implements EventManager {
      */
     ALWAYS,
     /**
-     * The event will never run async, everything is handled on the netty thread.
+     * The event will never run async, everything is handled on the netty thread except the event
+     * tasks requiring async execution.
      */
     NEVER
   }
 
   static final class HandlersCache {
 
+    final AsyncType asyncType;
     final HandlerRegistration[] handlers;
 
-    HandlersCache(final HandlerRegistration[] handlers) {
+    HandlersCache(final AsyncType asyncType, final HandlerRegistration[] handlers) {
+      this.asyncType = asyncType;
       this.handlers = handlers;
     }
   }
@@ -193,7 +256,10 @@ public class VelocityEventManager implements EventManager {
     }
 
     baked.sort(handlerComparator);
-    return new HandlersCache(baked.toArray(new HandlerRegistration[0]));
+    final AsyncType asyncType = baked.stream()
+        .anyMatch(registration -> registration.asyncType == AsyncType.ALWAYS)
+        ? AsyncType.ALWAYS : AsyncType.NEVER;
+    return new HandlersCache(asyncType, baked.toArray(new HandlerRegistration[0]));
   }
 
   /**
@@ -231,15 +297,17 @@ public class VelocityEventManager implements EventManager {
     final Method method;
     final @Nullable Class<?> eventType;
     final short order;
+    final AsyncType asyncType;
     final @Nullable String errors;
     final @Nullable Class<?> continuationType;
 
     private MethodHandlerInfo(final Method method, final @Nullable Class<?> eventType,
-        final short order, final @Nullable String errors,
+        final short order, final AsyncType asyncType, final @Nullable String errors,
         final @Nullable Class<?> continuationType) {
       this.method = method;
       this.eventType = eventType;
       this.order = order;
+      this.asyncType = asyncType;
       this.errors = errors;
       this.continuationType = continuationType;
     }
@@ -311,8 +379,9 @@ public class VelocityEventManager implements EventManager {
         }
       }
       final short order = (short) subscribe.order().ordinal();
+      final AsyncType asyncType = subscribe.async() ? AsyncType.ALWAYS : AsyncType.NEVER;
       final String errorsJoined = errors.isEmpty() ? null : String.join(",", errors);
-      collected.put(key, new MethodHandlerInfo(method, eventType, order, errorsJoined,
+      collected.put(key, new MethodHandlerInfo(method, eventType, order, asyncType, errorsJoined,
           continuationType));
     }
     final Class<?> superclass = targetClass.getSuperclass();
@@ -355,8 +424,10 @@ public class VelocityEventManager implements EventManager {
     requireNonNull(eventClass, "eventClass");
     requireNonNull(handler, "handler");
 
+    // Nothing tells whether the handler may block, so it always runs async.
     final HandlerRegistration registration = new HandlerRegistration(pluginContainer,
-        (short) order.ordinal(), eventClass, handler, (EventHandler<Object>) handler);
+        (short) order.ordinal(), eventClass, handler, (EventHandler<Object>) handler,
+        AsyncType.ALWAYS);
     register(Collections.singletonList(registration));
   }
 
@@ -386,7 +457,7 @@ public class VelocityEventManager implements EventManager {
 
       final EventHandler<Object> handler = untargetedHandler.buildHandler(listener);
       registrations.add(new HandlerRegistration(pluginContainer, info.order,
-          info.eventType, listener, handler));
+          info.eventType, listener, handler, info.asyncType));
     }
 
     register(registrations);
@@ -455,7 +526,7 @@ public class VelocityEventManager implements EventManager {
       // Optimization: nobody's listening.
       return;
     }
-    fire(null, event, handlersCache);
+    fire(null, event, handlersCache, isLimited());
   }
 
   @Override
@@ -467,16 +538,47 @@ public class VelocityEventManager implements EventManager {
       return CompletableFuture.completedFuture(event);
     }
     final CompletableFuture<E> future = new CompletableFuture<>();
-    fire(future, event, handlersCache);
+    fire(future, event, handlersCache, isLimited());
+    return future;
+  }
+
+  /**
+   * Fires an event tied to a connection, such as an event about a player. If none of the handlers
+   * of the event requires async execution, they are called on {@code eventLoop}, directly if this
+   * is called from it, and only the {@link EventTask}s requiring async execution are handed to the
+   * async executor. Otherwise, this behaves like {@link #fire(Object)}.
+   *
+   * @param event the event to fire
+   * @param eventLoop the event loop of the connection the event is tied to
+   * @param <E> the event type
+   * @return a future that completes once all the handlers were called
+   */
+  public <E> CompletableFuture<E> fire(final E event, final EventLoop eventLoop) {
+    requireNonNull(event, "event");
+    requireNonNull(eventLoop, "eventLoop");
+    final HandlersCache handlersCache = this.handlersCache.get(event.getClass());
+    if (handlersCache == null || handlersCache.handlers.length == 0) {
+      // Optimization: nobody's listening.
+      return CompletableFuture.completedFuture(event);
+    }
+    final CompletableFuture<E> future = new CompletableFuture<>();
+    final boolean limited = isLimited();
+    if (handlersCache.asyncType == AsyncType.ALWAYS) {
+      fire(future, event, handlersCache, limited);
+    } else if (eventLoop.inEventLoop()) {
+      fire(future, event, 0, false, limited, handlersCache.handlers);
+    } else {
+      eventLoop.execute(() -> fire(future, event, 0, false, limited, handlersCache.handlers));
+    }
     return future;
   }
 
   private <E> void fire(final @Nullable CompletableFuture<E> future,
-      final E event, final HandlersCache handlersCache) {
+      final E event, final HandlersCache handlersCache, final boolean limited) {
     // In Velocity 1.1.0, all events were fired asynchronously. As Velocity 3.0.0 is intended to be
     // largely (albeit not 100%) compatible with 1.1.x, we also fire events async. This behavior
     // will go away in Velocity Polymer.
-    asyncExecutor.execute(() -> fire(future, event, 0, true, handlersCache.handlers));
+    asyncExecutor.execute(() -> fire(future, event, 0, true, limited, handlersCache.handlers));
   }
 
   private static final int TASK_STATE_DEFAULT = 0;
@@ -504,6 +606,7 @@ public class VelocityEventManager implements EventManager {
     private final HandlerRegistration[] registrations;
     private final @Nullable CompletableFuture<E> future;
     private final boolean currentlyAsync;
+    private final boolean limited;
     private final E event;
 
     // This field is modified via a VarHandle, so this field is used and cannot be final.
@@ -520,19 +623,28 @@ public class VelocityEventManager implements EventManager {
         final @Nullable CompletableFuture<E> future,
         final E event,
         final int index,
-        final boolean currentlyAsync) {
+        final boolean currentlyAsync,
+        final boolean limited) {
       this.task = task;
       this.registrations = registrations;
       this.future = future;
       this.event = event;
       this.index = index;
       this.currentlyAsync = currentlyAsync;
+      this.limited = limited;
     }
 
     @Override
     public void run() {
-      if (execute()) {
-        fire(future, event, index + 1, currentlyAsync, registrations);
+      final Semaphore permits = enterAsyncHandler(registrations[index].plugin, limited);
+      final boolean next;
+      try {
+        next = execute();
+      } finally {
+        exitAsyncHandler(permits);
+      }
+      if (next) {
+        fire(future, event, index + 1, currentlyAsync, limited, registrations);
       }
     }
 
@@ -580,7 +692,7 @@ public class VelocityEventManager implements EventManager {
       }
       if (!CONTINUATION_TASK_STATE.compareAndSet(
           this, TASK_STATE_EXECUTING, TASK_STATE_CONTINUE_IMMEDIATELY)) {
-        asyncExecutor.execute(() -> fire(future, event, index + 1, true, registrations));
+        asyncExecutor.execute(() -> fire(future, event, index + 1, true, limited, registrations));
       }
     }
 
@@ -591,16 +703,19 @@ public class VelocityEventManager implements EventManager {
   }
 
   private <E> void fire(final @Nullable CompletableFuture<E> future, final E event,
-      final int offset, final boolean currentlyAsync, final HandlerRegistration[] registrations) {
+      final int offset, final boolean currentlyAsync, final boolean limited,
+      final HandlerRegistration[] registrations) {
     for (int i = offset; i < registrations.length; i++) {
       final HandlerRegistration registration = registrations[i];
+      final Semaphore permits = currentlyAsync
+          ? enterAsyncHandler(registration.plugin, limited) : null;
       try {
         final EventTask eventTask = registration.handler.executeAsync(event);
         if (eventTask == null) {
           continue;
         }
         final ContinuationTask<E> continuationTask = new ContinuationTask<>(eventTask,
-            registrations, future, event, i, currentlyAsync);
+            registrations, future, event, i, currentlyAsync, limited);
         if (currentlyAsync || !eventTask.requiresAsync()) {
           if (continuationTask.execute()) {
             continue;
@@ -613,6 +728,10 @@ public class VelocityEventManager implements EventManager {
         return;
       } catch (final Throwable t) {
         logHandlerException(registration, t);
+      } finally {
+        if (currentlyAsync) {
+          exitAsyncHandler(permits);
+        }
       }
     }
     if (future != null) {
@@ -620,6 +739,73 @@ public class VelocityEventManager implements EventManager {
     }
   }
 
+  /**
+   * Returns whether the handlers of an event fired from the current thread count against the
+   * concurrency limit of their plugin. They don't if it is fired from an async handler, which may
+   * wait for them while holding a permit.
+   *
+   * @return whether the handlers are limited
+   */
+  private boolean isLimited() {
+    return pluginConcurrency > 0 && !inAsyncHandler.get();
+  }
+
+  /**
+   * Waits until the plugin may run one more handler on an async thread, if its concurrency is
+   * limited, and marks the current thread as running an async handler.
+   *
+   * @param plugin the plugin about to run a handler
+   * @param limited whether the handler counts against the limit
+   * @return the permits to release once the handler returns, or {@code null} if unlimited
+   */
+  private @Nullable Semaphore enterAsyncHandler(final PluginContainer plugin,
+      final boolean limited) {
+    if (pluginConcurrency <= 0) {
+      return null;
+    }
+    inAsyncHandler.set(true);
+    if (!limited) {
+      return null;
+    }
+    final Semaphore permits = pluginPermits.computeIfAbsent(plugin,
+        k -> new Semaphore(pluginConcurrency));
+    permits.acquireUninterruptibly();
+    return permits;
+  }
+
+  private void exitAsyncHandler(final @Nullable Semaphore permits) {
+    if (pluginConcurrency <= 0) {
+      return;
+    }
+    inAsyncHandler.set(false);
+    if (permits != null) {
+      permits.release();
+    }
+  }
+
+  /**
+   * Creates a {@link JsonObject} describing the async executor, the plugins currently at their
+   * concurrency limit and the pinned virtual threads.
+   *
+   * @return the event manager statistics
+   */
+  public JsonObject getStatistics() {
+    final JsonObject json = new JsonObject();
+    json.addProperty("executor", virtualThreads ? "virtual" : "pooled");
+    json.addProperty("pluginConcurrency", pluginConcurrency);
+    final JsonObject saturated = new JsonObject();
+    pluginPermits.forEach((plugin, permits) -> {
+      if (permits.hasQueuedThreads()) {
+        saturated.addProperty(plugin.getDescription().getId(), permits.getQueueLength());
+      }
+    });
+    json.add("waitingHandlers", saturated);
+    if (pinnedThreadMonitor != null) {
+      json.add("pinnedThreads", pinnedThreadMonitor.getStatistics());
+    }
+    return json;
+  }
+
   private static void logHandlerException(
       final HandlerRegistration registration, final Throwable t) {
     logger.error("Couldn't pass {} to {}", registration.eventType.getSimpleName(),
@@ -627,6 +813,9 @@ public class VelocityEventManager implements EventManager {
   }
 
   public boolean shutdown() throws InterruptedException {
+    if (pinnedThreadMonitor != null) {
+      pinnedThreadMonitor.close();
+    }
     asyncExecutor.shutdown();
     return asyncExecutor.awaitTermination(10, TimeUnit.SECONDS);
   }
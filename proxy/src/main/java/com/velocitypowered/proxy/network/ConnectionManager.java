@@ -4,6 +4,7 @@ import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.proxy.MinecraftProxy;
 import com.velocitypowered.proxy.network.player.ClientConnection;
 import com.velocitypowered.proxy.network.player.ClientSocketConnection;
+import com.velocitypowered.proxy.util.StringUtils;
 import com.velocitypowered.proxy.util.validate.Check;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -13,8 +14,7 @@ import org.jetbrains.annotations.NotNull;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.function.Function;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
  * Manages the connected clients.
@@ -26,9 +26,12 @@ public final class ConnectionManager {
     private static final Component TIMEOUT_TEXT = Component.text("Timeout", NamedTextColor.RED);
 
     private final MessagePassingQueue<Player> waitingPlayers = new MpscUnboundedArrayQueue<>(64);
-    private final Set<Player> players = new CopyOnWriteArraySet<>();
-    private final Set<Player> unmodifiablePlayers = Collections.unmodifiableSet(players);
     private final Map<ClientConnection, Player> connectionPlayerMap = new ConcurrentHashMap<>();
+    private final Collection<Player> unmodifiablePlayers = Collections.unmodifiableCollection(connectionPlayerMap.values());
+    private final Map<UUID, Player> uuidPlayerMap = new ConcurrentHashMap<>();
+    // Lowercase usernames, the sorted map is used for prefix lookups
+    private final Map<String, Player> usernamePlayerMap = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Player> sortedUsernamePlayerMap = new ConcurrentSkipListMap<>();
 
     // The uuid provider once a player login
     private volatile UuidProvider uuidProvider = (playerConnection, username) -> UUID.randomUUID();
@@ -56,57 +59,72 @@ public final class ConnectionManager {
 
     /**
      * Finds the closest player matching a given username.
+     * <p>
+     * Players whose username starts with {@code username} are preferred, the other players are only scored
+     * when there is no such player.
      *
      * @param username the player username (can be partial)
      * @return the closest match, null if no players are online
      */
     public @Nullable Player findPlayer(@NotNull String username) {
-        Player exact = getPlayer(username);
+        final String lowercase = username.toLowerCase(Locale.ROOT);
+        final Player exact = usernamePlayerMap.get(lowercase);
         if (exact != null) return exact;
-        final String username1 = username.toLowerCase(Locale.ROOT);
-
-        Function<Player, Double> distanceFunction = player -> {
-            final String username2 = player.getUsername().toLowerCase(Locale.ROOT);
-            return StringUtils.jaroWinklerScore(username1, username2);
-        };
+        final Collection<Player> candidates = prefixMap(lowercase).values();
+        return closestPlayer(lowercase, candidates.isEmpty() ? getOnlinePlayers() : candidates);
+    }
 
-        return getOnlinePlayers()
-                .stream()
-                .min(Comparator.comparingDouble(distanceFunction::apply))
-                .filter(player -> distanceFunction.apply(player) > 0)
-                .orElse(null);
+    /**
+     * Gets the players whose username starts with {@code prefix}, ignoring case, in alphabetical order.
+     * <p>
+     * Useful for tab completion, the returned collection is a live view of the online players.
+     *
+     * @param prefix the username prefix
+     * @return an unmodifiable collection containing the matching players
+     */
+    public @NotNull Collection<@NotNull Player> getPlayersByPrefix(@NotNull String prefix) {
+        return Collections.unmodifiableCollection(prefixMap(prefix.toLowerCase(Locale.ROOT)).values());
     }
 
     /**
-     * Gets the first player which validate {@link String#equalsIgnoreCase(String)}.
+     * Gets the player with the given username, ignoring case.
      * <p>
-     * This can cause issue if two or more players have the same username.
+     * This can cause issue if two or more players have the same username, only the last registered one is indexed.
      *
      * @param username the player username (ignoreCase)
-     * @return the first player who validate the username condition, null if none was found
+     * @return the player with the username, null if none was found
      */
     public @Nullable Player getPlayer(@NotNull String username) {
-        for (Player player : getOnlinePlayers()) {
-            if (player.getUsername().equalsIgnoreCase(username))
-                return player;
-        }
-        return null;
+        return usernamePlayerMap.get(username.toLowerCase(Locale.ROOT));
     }
 
     /**
-     * Gets the first player which validate {@link UUID#equals(Object)}.
+     * Gets the player with the given {@link UUID}.
      * <p>
-     * This can cause issue if two or more players have the same UUID.
+     * This can cause issue if two or more players have the same UUID, only the last registered one is indexed.
      *
      * @param uuid the player UUID
-     * @return the first player who validate the UUID condition, null if none was found
+     * @return the player with the UUID, null if none was found
      */
     public @Nullable Player getPlayer(@NotNull UUID uuid) {
-        for (Player player : getOnlinePlayers()) {
-            if (player.getUuid().equals(uuid))
-                return player;
+        return uuidPlayerMap.get(uuid);
+    }
+
+    private @NotNull NavigableMap<String, Player> prefixMap(@NotNull String lowercasePrefix) {
+        return sortedUsernamePlayerMap.subMap(lowercasePrefix, true, lowercasePrefix + Character.MAX_VALUE, false);
+    }
+
+    private static @Nullable Player closestPlayer(@NotNull String lowercase, @NotNull Collection<Player> players) {
+        Player closest = null;
+        double closestScore = 0;
+        for (Player player : players) {
+            final double score = StringUtils.jaroWinklerScore(lowercase, player.getUsername().toLowerCase(Locale.ROOT));
+            if (score > closestScore) {
+                closest = player;
+                closestScore = score;
+            }
         }
-        return null;
+        return closest;
     }
 
     /**
@@ -157,8 +175,11 @@ public final class ConnectionManager {
     }
 
     public synchronized void registerPlayer(@NotNull Player player) {
-        this.players.add(player);
         this.connectionPlayerMap.put(player.getPlayerConnection(), player);
+        this.uuidPlayerMap.put(player.getUuid(), player);
+        final String username = player.getUsername().toLowerCase(Locale.ROOT);
+        this.usernamePlayerMap.put(username, player);
+        this.sortedUsernamePlayerMap.put(username, player);
     }
 
     /**
@@ -172,7 +193,11 @@ public final class ConnectionManager {
     public synchronized void removePlayer(@NotNull PlayerConnection connection) {
         final Player player = this.connectionPlayerMap.remove(connection);
         if (player == null) return;
-        this.players.remove(player);
+        // Only drop the index entries still pointing to this player
+        this.uuidPlayerMap.remove(player.getUuid(), player);
+        final String username = player.getUsername().toLowerCase(Locale.ROOT);
+        this.usernamePlayerMap.remove(username, player);
+        this.sortedUsernamePlayerMap.remove(username, player);
     }
 
     /**
@@ -236,8 +261,10 @@ public final class ConnectionManager {
      * Shutdowns the connection manager by kicking all the currently connected players.
      */
     public synchronized void shutdown() {
-        this.players.clear();
         this.connectionPlayerMap.clear();
+        this.uuidPlayerMap.clear();
+        this.usernamePlayerMap.clear();
+        this.sortedUsernamePlayerMap.clear();
     }
 
     /**
@@ -18,4 +18,16 @@ public non-sealed interface ProxyPacket extends NetworkBuffer.Writer, SendablePa
      */
     int getId();
 
+    /**
+     * Gets an upper bound of the encoded size of this packet body (excluding the id), used to pick a scratch buffer
+     * of the right size when framing it.
+     * <p>
+     * The estimate does not need to be exact, the packet is written again to a larger buffer if it does not fit.
+     *
+     * @return the estimated size in bytes, or -1 if unknown
+     */
+    default int encodeSizeHint() {
+        return -1;
+    }
+
 }
\ No newline at end of file
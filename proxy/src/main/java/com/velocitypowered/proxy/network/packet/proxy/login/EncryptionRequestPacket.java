@@ -29,6 +29,11 @@ public record EncryptionRequestPacket(
         writer.write(BYTE_ARRAY, verifyToken);
     }
 
+    @Override
+    public int encodeSizeHint() {
+        return 5 + serverId.length() * 3 + 5 + publicKey.length + 5 + verifyToken.length;
+    }
+
     @Override
     public int getId() {
         return ProxyPacketIdentifier.LOGIN_ENCRYPTION_REQUEST;
@@ -30,6 +30,11 @@ public record LoginPluginRequestPacket(
         }
     }
 
+    @Override
+    public int encodeSizeHint() {
+        return 5 + 5 + channel.length() * 3 + (data != null ? data.length : 0);
+    }
+
     @Override
     public int getId() {
         return ProxyPacketIdentifier.LOGIN_PLUGIN_REQUEST;
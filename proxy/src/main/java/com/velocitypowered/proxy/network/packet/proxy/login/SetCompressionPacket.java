@@ -18,6 +18,11 @@ public record SetCompressionPacket(int threshold) implements ProxyPacket {
         writer.write(VAR_INT, threshold);
     }
 
+    @Override
+    public int encodeSizeHint() {
+        return 5;
+    }
+
     @Override
     public int getId() {
         return ProxyPacketIdentifier.LOGIN_SET_COMPRESSION;
@@ -9,13 +9,14 @@ import com.velocitypowered.proxy.network.packet.client.ClientPacket;
 import com.velocitypowered.proxy.network.packet.client.handshake.HandshakePacket;
 import com.velocitypowered.proxy.network.packet.proxy.*;
 import com.velocitypowered.proxy.network.packet.proxy.login.SetCompressionPacket;
+import com.velocitypowered.proxy.network.socket.Server;
 import com.velocitypowered.proxy.network.socket.Worker;
 import com.velocitypowered.proxy.util.ObjectPool;
 import com.velocitypowered.proxy.util.PacketUtils;
 import com.velocitypowered.proxy.util.binary.BinaryBuffer;
+import com.velocitypowered.proxy.util.binary.BinaryBufferChain;
 import com.velocitypowered.proxy.util.mojang.MojangCrypt;
 import com.velocitypowered.proxy.util.validate.Check;
-import io.netty.util.internal.shaded.org.jctools.queues.MessagePassingQueue;
 import net.kyori.adventure.translation.GlobalTranslator;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
@@ -47,8 +48,7 @@ public class ClientSocketConnection extends ClientConnection {
     private final static Logger LOGGER = LoggerFactory.getLogger(ClientSocketConnection.class);
     private static final ObjectPool<BinaryBuffer> POOL = ObjectPool.BUFFER_POOL;
 
-    private final Worker worker;
-    private final MessagePassingQueue<Runnable> workerQueue;
+    private volatile Worker worker;
     private final SocketChannel channel;
     private SocketAddress remoteAddress;
 
@@ -69,21 +69,27 @@ public class ClientSocketConnection extends ClientConnection {
     // cleared once the player enters the play state
     private final Map<Integer, String> pluginRequestMap = new ConcurrentHashMap<>();
 
-    private final List<BinaryBuffer> waitingBuffers = new ArrayList<>();
-    private final AtomicReference<BinaryBuffer> tickBuffer = new AtomicReference<>(POOL.get());
-    private BinaryBuffer cacheBuffer;
+    private final AtomicReference<BinaryBufferChain> outboundBuffer = new AtomicReference<>(new BinaryBufferChain(POOL));
+    private final BinaryBufferChain cacheBuffer = new BinaryBufferChain(POOL); // Last incomplete packet
+    private long lastReadTime = System.currentTimeMillis();
+
+    // Backpressure
+    private boolean waitingWritable;
+    private boolean dirty;
+    private volatile boolean writable = true;
+    private volatile WritabilityListener writabilityListener;
 
     private final ListenerHandle<PlayerPacketOutEvent> outgoing = EventDispatcher.getHandle(PlayerPacketOutEvent.class);
 
     public ClientSocketConnection(@NotNull Worker worker, @NotNull SocketChannel channel, SocketAddress remoteAddress) {
         super();
         this.worker = worker;
-        this.workerQueue = worker.queue();
         this.channel = channel;
         this.remoteAddress = remoteAddress;
     }
 
     public void processPackets(BinaryBuffer readBuffer, PacketProcessor packetProcessor) {
+        this.lastReadTime = System.currentTimeMillis();
         // Decrypt data
         {
             final EncryptionContext encryptionContext = this.encryptionContext;
@@ -99,7 +105,7 @@ public class ClientSocketConnection extends ClientConnection {
         }
         // Read all packets
         try {
-            this.cacheBuffer = PacketUtils.readPackets(readBuffer, compressed,
+            PacketUtils.readPackets(readBuffer, compressed, worker.compressor(),
                     (id, payload) -> {
                         if (!isOnline())
                             return; // Prevent packet corruption
@@ -115,6 +121,8 @@ public class ClientSocketConnection extends ClientConnection {
                             }
                         }
                     });
+            // Keep the incomplete packet for the next read
+            if (readBuffer.readableBytes() > 0) this.cacheBuffer.write(readBuffer);
         } catch (DataFormatException e) {
             MinecraftProxy.getExceptionManager().handleException(e);
             disconnect();
@@ -122,11 +130,7 @@ public class ClientSocketConnection extends ClientConnection {
     }
 
     public void consumeCache(BinaryBuffer buffer) {
-        final BinaryBuffer cache = this.cacheBuffer;
-        if (cache != null) {
-            buffer.write(cache);
-            this.cacheBuffer = null;
-        }
+        if (!cacheBuffer.isEmpty()) this.cacheBuffer.transferTo(buffer);
     }
 
     /**
@@ -156,21 +160,21 @@ public class ClientSocketConnection extends ClientConnection {
     @Override
     public void sendPacket(@NotNull SendablePacket packet) {
         final boolean compressed = this.compressed;
-        this.workerQueue.relaxedOffer(() -> writePacketSync(packet, compressed));
+        execute(() -> writePacketSync(packet, compressed));
     }
 
     @Override
     public void sendPackets(@NotNull Collection<SendablePacket> packets) {
         final List<SendablePacket> packetsCopy = List.copyOf(packets);
         final boolean compressed = this.compressed;
-        this.workerQueue.relaxedOffer(() -> {
+        execute(() -> {
             for (SendablePacket packet : packetsCopy) writePacketSync(packet, compressed);
         });
     }
 
     @ApiStatus.Internal
     public void write(@NotNull ByteBuffer buffer, int index, int length) {
-        this.workerQueue.relaxedOffer(() -> writeBufferSync(buffer, index, length));
+        execute(() -> writeBufferSync(buffer, index, length));
     }
 
     @ApiStatus.Internal
@@ -198,15 +202,79 @@ public class ClientSocketConnection extends ClientConnection {
     @Override
     public void disconnect() {
         super.disconnect();
-        this.workerQueue.relaxedOffer(() -> {
+        execute(() -> {
             this.worker.disconnect(this, channel);
-            final BinaryBuffer tick = tickBuffer.getAndSet(null);
-            if (tick != null) POOL.add(tick);
-            for (BinaryBuffer buffer : waitingBuffers) POOL.add(buffer);
-            this.waitingBuffers.clear();
+            final BinaryBufferChain outbound = outboundBuffer.getAndSet(null);
+            if (outbound != null) outbound.release();
+            this.cacheBuffer.release();
         });
     }
 
+    /**
+     * Checks if this connection can be moved to another worker without splitting any packet.
+     * <p>
+     * Must be called from the owning worker thread.
+     *
+     * @param now      the current time in milliseconds
+     * @param idleTime the minimum time since the last read, in milliseconds
+     * @return true if nothing was read for {@code idleTime} and no data is pending
+     */
+    @ApiStatus.Internal
+    public boolean isIdle(long now, long idleTime) {
+        if (now - lastReadTime < idleTime) return false;
+        final BinaryBufferChain outbound = outboundBuffer.getPlain();
+        return outbound != null && outbound.isEmpty() && cacheBuffer.isEmpty();
+    }
+
+    /**
+     * Changes the worker owning this connection.
+     * <p>
+     * Called by the previous owner, after having unregistered the channel from its selector.
+     *
+     * @param worker the new owner
+     */
+    @ApiStatus.Internal
+    public void migrate(@NotNull Worker worker) {
+        this.worker = worker;
+    }
+
+    /**
+     * Gets if the outbound buffers of this connection are below the high water mark.
+     * <p>
+     * Once unwritable, the connection becomes writable again when its buffers drop below the low water mark.
+     * Producers such as the backend connection should stop reading in the meantime, see {@link #setWritabilityListener(WritabilityListener)}.
+     *
+     * @return true if more data can be queued
+     */
+    public boolean isWritable() {
+        return writable;
+    }
+
+    /**
+     * Sets the listener notified when {@link #isWritable()} changes.
+     *
+     * @param listener the new listener, null to remove it
+     */
+    public void setWritabilityListener(@Nullable WritabilityListener listener) {
+        this.writabilityListener = listener;
+    }
+
+    @ApiStatus.Internal
+    public void clearDirty() {
+        this.dirty = false;
+    }
+
+    /**
+     * Gets if the socket could not accept all the pending data,
+     * in which case the worker waits for the selector to report it writable instead of flushing it every loop.
+     *
+     * @return true if waiting for the socket to be writable
+     */
+    @ApiStatus.Internal
+    public boolean isWaitingWritable() {
+        return waitingWritable;
+    }
+
     public @NotNull SocketChannel getChannel() {
         return channel;
     }
@@ -367,17 +435,17 @@ public class ClientSocketConnection extends ClientConnection {
                         GlobalTranslator.render(component, Objects.requireNonNullElseGet(player.getLocale(), VelocityAdventure::getDefaultLocale)));
             }
         }
-        try (var hold = ObjectPool.PACKET_POOL.hold()) {
-            var buffer = PacketUtils.createFramedPacket(hold.get(), proxyPacket, compressed);
+        PacketUtils.withFramedPacket(proxyPacket, compressed, buffer -> {
             writeBufferSync(buffer, 0, buffer.limit());
-        }
+            return null;
+        });
     }
 
     private void writeBufferSync(@NotNull ByteBuffer buffer, int index, int length) {
         // Encrypt data
         final EncryptionContext encryptionContext = this.encryptionContext;
         if (encryptionContext != null) { // Encryption support
-            try (var hold = ObjectPool.PACKET_POOL.hold()) {
+            try (var hold = ObjectPool.packetPool(length).hold()) {
                 ByteBuffer output = hold.get();
                 try {
                     length = encryptionContext.encrypt().update(buffer.slice(index, length), output);
@@ -392,53 +460,87 @@ public class ClientSocketConnection extends ClientConnection {
     }
 
     private void writeBufferSync0(@NotNull ByteBuffer buffer, int index, int length) {
-        BinaryBuffer localBuffer = tickBuffer.getPlain();
-        if (localBuffer == null) {
+        final BinaryBufferChain outbound = outboundBuffer.getPlain();
+        if (outbound == null) {
             return; // Socket is closed
         }
-        final int capacity = localBuffer.capacity();
-
-        if (length <= capacity) {
-            if (!localBuffer.canWrite(length)) localBuffer = updateLocalBuffer();
-            localBuffer.write(buffer, index, length);
-        } else {
-            final int bufferCount = length / capacity + 1;
-            for (int i = 0; i < bufferCount; i++) {
-                final int sliceStart = i * capacity;
-                final int sliceLength = Math.min(length, sliceStart + capacity) - sliceStart;
-                if (!localBuffer.canWrite(sliceLength)) localBuffer = updateLocalBuffer();
-                localBuffer.write(buffer, sliceStart, sliceLength);
-            }
+        if (outbound.readableBytes() + length > Server.WRITE_BUFFER_LIMIT) {
+            LOGGER.warn("{} is not reading fast enough ({} bytes pending), disconnecting", getIdentifier(), outbound.readableBytes());
+            disconnect();
+            return;
         }
+        outbound.write(buffer, index, length);
+        if (writable && outbound.readableBytes() > Server.WRITE_BUFFER_HIGH_WATER_MARK) {
+            updateWritability(false);
+        }
+        markDirty();
     }
 
-    public void flushSync() throws IOException {
+    /**
+     * Writes as much pending data as the socket accepts, using a single gathering write.
+     *
+     * @return the number of bytes written
+     * @throws IOException if the socket is closed
+     */
+    public int flushSync() throws IOException {
         final SocketChannel channel = this.channel;
-        final List<BinaryBuffer> waitingBuffers = this.waitingBuffers;
-
         if (!channel.isConnected()) throw new ClosedChannelException();
-        if (waitingBuffers.isEmpty()) {
-            BinaryBuffer localBuffer = tickBuffer.getPlain();
-            if (localBuffer == null)
-                return; // Socket is closed
-            localBuffer.writeChannel(channel);
-        } else {
-            // Write as much as possible from the waiting list
-            Iterator<BinaryBuffer> iterator = waitingBuffers.iterator();
-            while (iterator.hasNext()) {
-                BinaryBuffer waitingBuffer = iterator.next();
-                if (!waitingBuffer.writeChannel(channel)) break;
-                iterator.remove();
-                POOL.add(waitingBuffer);
+        final BinaryBufferChain outbound = outboundBuffer.getPlain();
+        if (outbound == null)
+            return 0; // Socket is closed
+        final int written = (int) outbound.writeChannel(channel);
+        if (!writable && outbound.readableBytes() <= Server.WRITE_BUFFER_LOW_WATER_MARK) {
+            updateWritability(true);
+        }
+        // The socket buffer is full, wait for the selector to tell us when it drains
+        final boolean saturated = !outbound.isEmpty();
+        if (saturated != waitingWritable) {
+            this.waitingWritable = saturated;
+            worker.writeInterest(channel, saturated);
+        }
+        return written;
+    }
+
+    private void markDirty() {
+        if (dirty) return;
+        this.dirty = true;
+        this.worker.markDirty(this);
+    }
+
+    private void updateWritability(boolean writable) {
+        this.writable = writable;
+        final WritabilityListener listener = this.writabilityListener;
+        if (listener != null) {
+            try {
+                listener.writabilityChanged(this, writable);
+            } catch (Exception e) {
+                MinecraftProxy.getExceptionManager().handleException(e);
             }
         }
     }
 
-    private BinaryBuffer updateLocalBuffer() {
-        BinaryBuffer newBuffer = POOL.get();
-        this.waitingBuffers.add(tickBuffer.getPlain());
-        this.tickBuffer.setPlain(newBuffer);
-        return newBuffer;
+    /**
+     * Runs a task on the worker owning this connection.
+     * <p>
+     * A task queued right before the connection is migrated is forwarded to the new owner.
+     */
+    private void execute(Runnable task) {
+        final Worker worker = this.worker;
+        worker.queue().relaxedOffer(() -> {
+            if (this.worker != worker) {
+                execute(task);
+                return;
+            }
+            task.run();
+        });
+    }
+
+    /**
+     * Notified on the worker thread when the writability of a connection changes, must not block.
+     */
+    @FunctionalInterface
+    public interface WritabilityListener {
+        void writabilityChanged(@NotNull ClientSocketConnection connection, boolean writable);
     }
 
     record EncryptionContext(Cipher encrypt, Cipher decrypt) {
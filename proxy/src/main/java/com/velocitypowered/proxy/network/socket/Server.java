@@ -4,6 +4,8 @@ import com.velocitypowered.proxy.MinecraftProxy;
 import com.velocitypowered.proxy.network.PacketProcessor;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.*;
@@ -12,6 +14,7 @@ import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -21,6 +24,15 @@ public final class Server {
     public static final int MAX_PACKET_SIZE = Integer.getInteger("minestom.max-packet-size", 2_097_151); // 3 bytes var-int
     public static final int SOCKET_SEND_BUFFER_SIZE = Integer.getInteger("minestom.send-buffer-size", 262_143);
     public static final int SOCKET_RECEIVE_BUFFER_SIZE = Integer.getInteger("minestom.receive-buffer-size", 32_767);
+    public static final int COMPRESSION_LEVEL = Integer.getInteger("minestom.compression-level", -1);
+    public static final String WORKER_SELECTION = System.getProperty("minestom.worker-selection", "least-connections");
+    public static final int WRITE_BUFFER_HIGH_WATER_MARK = Integer.getInteger("minestom.write-buffer-high-water-mark", 2_097_152);
+    public static final int WRITE_BUFFER_LOW_WATER_MARK = Integer.getInteger("minestom.write-buffer-low-water-mark", 1_048_576);
+    public static final int WRITE_BUFFER_LIMIT = Integer.getInteger("minestom.write-buffer-limit", 16_777_216);
+    public static final long REBALANCE_INTERVAL = Long.getLong("minestom.rebalance-interval", -1); // ms, 0 to disable, -1 for the transport default
+    private static final long REUSEPORT_REBALANCE_INTERVAL = 5000; // ms, the only way to apply the selection strategy
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Server.class);
 
     public static final boolean NO_DELAY = true;
 
@@ -29,15 +41,26 @@ public final class Server {
     private final Selector selector = Selector.open();
     private final PacketProcessor packetProcessor;
     private final List<Worker> workers;
-    private int index;
+    private final SocketTransport preferredTransport;
+    private final WorkerSelectionStrategy selectionStrategy;
 
+    private SocketTransport transport;
+    private long rebalanceInterval;
     private ServerSocketChannel serverSocket;
+    private final List<ServerSocketChannel> workerSockets = new ArrayList<>();
     private SocketAddress socketAddress;
     private String address;
     private int port;
 
     public Server(PacketProcessor packetProcessor) throws IOException {
+        this(packetProcessor, SocketTransport.DEFAULT, WorkerSelectionStrategy.fromName(WORKER_SELECTION));
+    }
+
+    public Server(PacketProcessor packetProcessor, SocketTransport transport,
+                  WorkerSelectionStrategy selectionStrategy) throws IOException {
         this.packetProcessor = packetProcessor;
+        this.preferredTransport = transport;
+        this.selectionStrategy = selectionStrategy;
         Worker[] workers = new Worker[WORKER_COUNT];
         Arrays.setAll(workers, value -> new Worker(this));
         this.workers = List.of(workers);
@@ -58,21 +81,48 @@ public final class Server {
             throw new IllegalArgumentException("Address must be an InetSocketAddress or a UnixDomainSocketAddress");
         }
 
+        this.transport = preferredTransport.resolve(address);
+        this.socketAddress = address;
+        if (transport == SocketTransport.REUSEPORT) {
+            // The kernel picks the worker accepting each connection, the strategy can only move them afterward
+            this.rebalanceInterval = REBALANCE_INTERVAL < 0 ? REUSEPORT_REBALANCE_INTERVAL : REBALANCE_INTERVAL;
+            if (rebalanceInterval == 0) {
+                LOGGER.warn("Worker selection {} has no effect with the {} transport while rebalancing is disabled",
+                        WORKER_SELECTION, transport);
+            }
+            bindWorkers((InetSocketAddress) address, family);
+            return;
+        }
+        this.rebalanceInterval = Math.max(REBALANCE_INTERVAL, 0);
+
         ServerSocketChannel server = ServerSocketChannel.open(family);
         server.bind(address);
         server.configureBlocking(false);
         server.register(selector, SelectionKey.OP_ACCEPT);
         this.serverSocket = server;
-        this.socketAddress = address;
 
         if (address instanceof InetSocketAddress && port == 0) {
             port = server.socket().getLocalPort();
         }
     }
 
+    private void bindWorkers(InetSocketAddress address, ProtocolFamily family) throws IOException {
+        for (Worker worker : workers) {
+            ServerSocketChannel server = ServerSocketChannel.open(family);
+            server.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+            // Every listener after the first one must bind to the port picked for the first
+            server.bind(port == address.getPort() ? address : new InetSocketAddress(address.getAddress(), port));
+            server.configureBlocking(false);
+            worker.listen(server);
+            this.workerSockets.add(server);
+            if (port == 0) port = server.socket().getLocalPort();
+        }
+    }
+
     @ApiStatus.Internal
     public void start() {
         this.workers.forEach(Thread::start);
+        if (transport == SocketTransport.REUSEPORT) return; // Workers accept by themselves
         new Thread(() -> {
             while (!stop) {
                 // Busy wait for connections
@@ -105,6 +155,9 @@ public final class Server {
             if(serverSocket != null) {
                 this.serverSocket.close();
             }
+            for (ServerSocketChannel workerSocket : workerSockets) {
+                workerSocket.close();
+            }
 
             if (socketAddress instanceof UnixDomainSocketAddress unixDomainSocketAddress) {
                 Files.deleteIfExists(unixDomainSocketAddress.getPath());
@@ -121,6 +174,38 @@ public final class Server {
         return packetProcessor;
     }
 
+    /**
+     * Gets the transport used to accept connections, only known once the server is initialized.
+     *
+     * @return the transport in use
+     */
+    public SocketTransport transport() {
+        return transport;
+    }
+
+    /**
+     * Gets the interval between two rebalancing rounds of the workers, only known once the server is initialized.
+     * <p>
+     * Enabled by default with {@link SocketTransport#REUSEPORT}, where rebalancing is the only way
+     * the {@link WorkerSelectionStrategy} is applied.
+     *
+     * @return the interval in milliseconds, 0 if disabled
+     */
+    @ApiStatus.Internal
+    public long rebalanceInterval() {
+        return rebalanceInterval;
+    }
+
+    @ApiStatus.Internal
+    public @NotNull WorkerSelectionStrategy selectionStrategy() {
+        return selectionStrategy;
+    }
+
+    @ApiStatus.Internal
+    public @NotNull List<@NotNull Worker> workers() {
+        return workers;
+    }
+
     public SocketAddress socketAddress() {
         return socketAddress;
     }
@@ -134,8 +219,7 @@ public final class Server {
     }
 
     private Worker findWorker() {
-        this.index = ++index % WORKER_COUNT;
-        return workers.get(index);
+        return selectionStrategy.select(workers);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.velocitypowered.proxy.network.socket;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.util.Locale;
+
+/**
+ * Decides how the {@link Server} accepts connections and hands them to its {@link Worker workers}.
+ * <p>
+ * The transport can be forced with the {@code minestom.transport} property, an unavailable transport
+ * falls back to {@link #NIO}.
+ */
+@ApiStatus.Internal
+public enum SocketTransport {
+    /**
+     * A single acceptor thread owning the listening socket, which hands every accepted connection
+     * to a worker. Works on every platform and for unix domain sockets.
+     */
+    NIO("NIO") {
+        @Override
+        boolean isAvailable(@NotNull SocketAddress address) {
+            return true;
+        }
+    },
+    /**
+     * One listening socket per worker, all bound to the same address with {@code SO_REUSEPORT}.
+     * The kernel spreads incoming connections between them, and each worker accepts from its own
+     * selector, so there is no acceptor thread and no cross-thread wakeup per connection.
+     */
+    REUSEPORT("SO_REUSEPORT") {
+        @Override
+        boolean isAvailable(@NotNull SocketAddress address) {
+            return address instanceof InetSocketAddress && SUPPORTS_REUSEPORT;
+        }
+    };
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SocketTransport.class);
+    private static final boolean SUPPORTS_REUSEPORT = supportsReusePort();
+
+    public static final SocketTransport DEFAULT = fromName(System.getProperty("minestom.transport"));
+
+    private final String name;
+
+    SocketTransport(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Checks if this transport can listen on the given address.
+     *
+     * @param address the address to bind
+     * @return true if this transport can be used
+     */
+    abstract boolean isAvailable(@NotNull SocketAddress address);
+
+    /**
+     * Gets the transport to use for the given address, falling back to {@link #NIO}.
+     *
+     * @param address the address to bind
+     * @return this transport if available, {@link #NIO} otherwise
+     */
+    @NotNull SocketTransport resolve(@NotNull SocketAddress address) {
+        if (isAvailable(address)) return this;
+        LOGGER.warn("{} transport is not available for {}, falling back to {}", name, address, NIO.name);
+        return NIO;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static SocketTransport fromName(String name) {
+        if (name == null) return SUPPORTS_REUSEPORT && Server.WORKER_COUNT > 1 ? REUSEPORT : NIO;
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "nio" -> NIO;
+            case "reuseport", "so_reuseport" -> REUSEPORT;
+            default -> {
+                LOGGER.warn("Unknown transport {}, using {}", name, NIO.name);
+                yield NIO;
+            }
+        };
+    }
+
+    private static boolean supportsReusePort() {
+        // SO_REUSEPORT balances connections between listeners only on Linux, other systems
+        // (BSD, macOS) let the last bound socket take everything
+        if (!System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("linux")) return false;
+        try (ServerSocketChannel channel = ServerSocketChannel.open()) {
+            return channel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -1,18 +1,23 @@
 package com.velocitypowered.proxy.network.socket;
 
+import com.velocitypowered.natives.compression.VelocityCompressor;
+import com.velocitypowered.natives.util.Natives;
 import com.velocitypowered.proxy.MinecraftProxy;
 import com.velocitypowered.proxy.network.player.ClientSocketConnection;
 import com.velocitypowered.proxy.thread.VelocityThread;
 import com.velocitypowered.proxy.util.ObjectPool;
 import com.velocitypowered.proxy.util.binary.BinaryBuffer;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -21,11 +26,21 @@ import java.util.concurrent.atomic.AtomicInteger;
 public final class Worker extends VelocityThread {
 
     private static final AtomicInteger COUNTER = new AtomicInteger();
+    private static final long LOAD_WINDOW_MS = 1000;
+    private static final int MAX_MIGRATIONS = 64; // Per rebalancing round
 
     final Selector selector;
     private final Map<SocketChannel, ClientSocketConnection> connectionMap = new ConcurrentHashMap<>();
     private final Server server;
     private final MpscUnboundedXaddArrayQueue<Runnable> queue = new MpscUnboundedXaddArrayQueue<>(1024);
+    private final ArrayDeque<ClientSocketConnection> dirtyConnections = new ArrayDeque<>();
+    private final VelocityCompressor compressor = Natives.compress.get().create(Server.COMPRESSION_LEVEL);
+
+    // Load counters, written by the worker thread only
+    private long windowBytes;
+    private long windowStart;
+    private volatile long recentBytes;
+    private long lastRebalance;
 
     Worker(Server server) {
         super("Ms-worker-" + COUNTER.getAndIncrement());
@@ -41,16 +56,29 @@ public final class Worker extends VelocityThread {
     public void run() {
         while (server.isOpen()) {
             try {
+                final long now = System.currentTimeMillis();
+                updateLoad(now);
+                final long rebalanceInterval = server.rebalanceInterval();
+                if (rebalanceInterval > 0 && now - lastRebalance >= rebalanceInterval) {
+                    this.lastRebalance = now;
+                    rebalance(now, rebalanceInterval);
+                }
+
                 try {
                     this.queue.drain(Runnable::run);
                 } catch (Exception e) {
                     MinecraftProxy.getExceptionManager().handleException(e);
                 }
 
-                // Flush all connections if needed
-                for (ClientSocketConnection connection : connectionMap.values()) {
+                // Flush the connections written to since the last loop
+                // Connections may mark themselves dirty again while flushing, leave them to the next loop
+                for (int i = dirtyConnections.size(); i > 0; i--) {
+                    final ClientSocketConnection connection = dirtyConnections.poll();
+                    connection.clearDirty();
+                    if (!connection.isOnline()) continue; // Flushed by #disconnect
+                    if (connection.isWaitingWritable()) continue; // Flushed once the selector reports it writable
                     try {
-                        connection.flushSync();
+                        this.windowBytes += connection.flushSync();
                     } catch (Exception e) {
                         connection.disconnect();
                     }
@@ -58,9 +86,12 @@ public final class Worker extends VelocityThread {
 
                 // Wait for an event
                 this.selector.select(key -> {
+                    if (key.isAcceptable()) {
+                        accept((ServerSocketChannel) key.channel());
+                        return;
+                    }
                     final SocketChannel channel = (SocketChannel) key.channel();
                     if (!channel.isOpen()) return;
-                    if (!key.isReadable()) return;
                     final ClientSocketConnection connection = connectionMap.get(channel);
                     if (connection == null) {
                         try {
@@ -70,13 +101,22 @@ public final class Worker extends VelocityThread {
                         }
                         return;
                     }
+                    if (key.isValid() && key.isWritable()) {
+                        try {
+                            this.windowBytes += connection.flushSync();
+                        } catch (IOException e) {
+                            connection.disconnect();
+                            return;
+                        }
+                    }
+                    if (!key.isValid() || !key.isReadable()) return;
                     try {
                         try (var holder = ObjectPool.PACKET_POOL.hold()) {
                             BinaryBuffer readBuffer = BinaryBuffer.wrap(holder.get());
                             // Consume last incomplete packet
                             connection.consumeCache(readBuffer);
                             // Read & process
-                            readBuffer.readChannel(channel);
+                            this.windowBytes += readBuffer.readChannel(channel);
                             connection.processPackets(readBuffer, server.packetProcessor());
                         }
                     } catch (IOException e) {
@@ -91,6 +131,7 @@ public final class Worker extends VelocityThread {
                 MinecraftProxy.getExceptionManager().handleException(e);
             }
         }
+        this.compressor.close();
     }
 
     public void disconnect(ClientSocketConnection connection, SocketChannel channel) {
@@ -108,6 +149,84 @@ public final class Worker extends VelocityThread {
     }
 
     void receiveConnection(SocketChannel channel) throws IOException {
+        registerConnection(channel);
+        this.selector.wakeup();
+    }
+
+    /**
+     * Makes this worker accept connections from its own listening socket,
+     * used by {@link SocketTransport#REUSEPORT}.
+     *
+     * @param server the listening socket, bound with {@code SO_REUSEPORT}
+     */
+    void listen(ServerSocketChannel server) throws IOException {
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    private void accept(ServerSocketChannel server) {
+        try {
+            SocketChannel client;
+            while ((client = server.accept()) != null) {
+                registerConnection(client);
+            }
+        } catch (IOException e) {
+            if (server.isOpen()) MinecraftProxy.getExceptionManager().handleException(e);
+        }
+    }
+
+    /**
+     * Moves idle connections to the worker picked by the server {@link WorkerSelectionStrategy}
+     * if this one owns more connections than it.
+     * <p>
+     * A connection is idle if it did not receive anything for a whole rebalancing interval and has no pending data,
+     * so that no packet can be split between the two workers.
+     */
+    private void rebalance(long now, long interval) {
+        final Worker target = server.selectionStrategy().select(server.workers());
+        if (target == this) return;
+        int excess = Math.min((connectionCount() - target.connectionCount()) / 2, MAX_MIGRATIONS);
+        if (excess <= 0) return;
+        for (ClientSocketConnection connection : connectionMap.values()) {
+            if (!connection.isIdle(now, interval)) continue;
+            migrate(connection, target);
+            if (--excess == 0) break;
+        }
+    }
+
+    private void migrate(ClientSocketConnection connection, Worker target) {
+        assert Thread.currentThread() == this;
+        final SocketChannel channel = connection.getChannel();
+        final SelectionKey key = channel.keyFor(selector);
+        if (key != null) key.cancel();
+        this.connectionMap.remove(channel);
+        // Tasks still queued on this worker are forwarded by the connection
+        connection.migrate(target);
+        target.queue.relaxedOffer(() -> target.adopt(connection));
+        target.selector.wakeup();
+    }
+
+    private void adopt(ClientSocketConnection connection) {
+        final SocketChannel channel = connection.getChannel();
+        if (!channel.isOpen()) return;
+        // Tasks from other threads may have run before this one, and failed to register the write interest without a key
+        final int ops = connection.isWaitingWritable() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        try {
+            channel.register(selector, ops);
+            this.connectionMap.put(channel, connection);
+        } catch (IOException e) {
+            connection.disconnect();
+        }
+    }
+
+    private void updateLoad(long now) {
+        if (now - windowStart < LOAD_WINDOW_MS) return;
+        // Halve the history every window, so that old traffic fades out
+        this.recentBytes = (recentBytes + windowBytes) >>> 1;
+        this.windowBytes = 0;
+        this.windowStart = now;
+    }
+
+    private void registerConnection(SocketChannel channel) throws IOException {
         this.connectionMap.put(channel, new ClientSocketConnection(this, channel, channel.getRemoteAddress()));
         channel.configureBlocking(false);
         channel.register(selector, SelectionKey.OP_READ);
@@ -118,11 +237,68 @@ public final class Worker extends VelocityThread {
             socket.setTcpNoDelay(Server.NO_DELAY);
             socket.setSoTimeout(30 * 1000); // 30 seconds
         }
-        this.selector.wakeup();
+    }
+
+    /**
+     * Queues a connection to be flushed at the end of the current loop.
+     * <p>
+     * Must be called from the worker thread, at most once until the connection is flushed.
+     *
+     * @param connection the connection owned by this worker with pending data
+     */
+    @ApiStatus.Internal
+    public void markDirty(@NotNull ClientSocketConnection connection) {
+        assert Thread.currentThread() == this;
+        this.dirtyConnections.offer(connection);
+    }
+
+    /**
+     * Registers or removes the interest in the writability of a channel.
+     * <p>
+     * Must be called from the worker thread.
+     *
+     * @param channel the channel owned by this worker
+     * @param enabled true to be notified once the channel can be written to again
+     */
+    @ApiStatus.Internal
+    public void writeInterest(@NotNull SocketChannel channel, boolean enabled) {
+        final SelectionKey key = channel.keyFor(selector);
+        if (key == null || !key.isValid()) return;
+        key.interestOps(enabled ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    /**
+     * Gets the number of connections owned by this worker.
+     *
+     * @return the connection count
+     */
+    public int connectionCount() {
+        return connectionMap.size();
+    }
+
+    /**
+     * Gets the number of bytes read and written by this worker recently,
+     * as an exponentially decaying sum over one second windows.
+     *
+     * @return the recent byte count
+     */
+    public long recentBytes() {
+        return recentBytes;
     }
 
     public MessagePassingQueue<Runnable> queue() {
         return queue;
     }
 
+    /**
+     * Gets the compressor owned by this worker, used to inflate and deflate the packets of all its connections.
+     * <p>
+     * Must only be used from the worker thread.
+     *
+     * @return the worker compressor
+     */
+    public @NotNull VelocityCompressor compressor() {
+        return compressor;
+    }
+
 }
\ No newline at end of file
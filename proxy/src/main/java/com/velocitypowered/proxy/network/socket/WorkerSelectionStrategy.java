@@ -0,0 +1,81 @@
+package com.velocitypowered.proxy.network.socket;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+/**
+ * Picks the {@link Worker} which will own a newly accepted connection.
+ * <p>
+ * With {@link SocketTransport#NIO} the strategy assigns every accepted connection. With {@link SocketTransport#REUSEPORT}
+ * the kernel distributes connections itself, the strategy then picks where workers move their idle connections when
+ * rebalancing, see {@code minestom.rebalance-interval}.
+ * The strategy can be chosen with the {@code minestom.worker-selection} property.
+ */
+@ApiStatus.Internal
+@FunctionalInterface
+public interface WorkerSelectionStrategy {
+
+    /**
+     * Selects a worker.
+     *
+     * @param workers the workers of the server, never empty
+     * @return the worker to assign the connection to
+     */
+    @NotNull Worker select(@NotNull List<@NotNull Worker> workers);
+
+    /**
+     * Assigns workers one after the other, whatever their load.
+     *
+     * @return a new round-robin strategy
+     */
+    static @NotNull WorkerSelectionStrategy roundRobin() {
+        final AtomicInteger index = new AtomicInteger();
+        return workers -> workers.get(Math.floorMod(index.getAndIncrement(), workers.size()));
+    }
+
+    /**
+     * Assigns the worker currently owning the fewest connections.
+     *
+     * @return the least-connections strategy
+     */
+    static @NotNull WorkerSelectionStrategy leastConnections() {
+        return workers -> leastLoaded(workers, Worker::connectionCount);
+    }
+
+    /**
+     * Assigns the worker which transferred the fewest bytes recently, see {@link Worker#recentBytes()}.
+     *
+     * @return the least-recent-bytes strategy
+     */
+    static @NotNull WorkerSelectionStrategy leastRecentBytes() {
+        return workers -> leastLoaded(workers, Worker::recentBytes);
+    }
+
+    static @NotNull WorkerSelectionStrategy fromName(@NotNull String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "round-robin" -> roundRobin();
+            case "least-connections" -> leastConnections();
+            case "least-recent-bytes" -> leastRecentBytes();
+            default -> throw new IllegalArgumentException("Unknown worker selection strategy: " + name);
+        };
+    }
+
+    private static Worker leastLoaded(List<Worker> workers, ToLongFunction<Worker> load) {
+        Worker result = workers.get(0);
+        long lowest = load.applyAsLong(result);
+        for (int i = 1; i < workers.size(); i++) {
+            final Worker worker = workers.get(i);
+            final long value = load.applyAsLong(worker);
+            if (value < lowest) {
+                result = worker;
+                lowest = value;
+            }
+        }
+        return result;
+    }
+}
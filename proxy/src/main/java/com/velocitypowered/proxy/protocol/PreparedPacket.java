@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2018-2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.natives.compression.VelocityCompressor;
+import com.velocitypowered.natives.util.MoreByteBufUtils;
+import com.velocitypowered.natives.util.Natives;
+import com.velocitypowered.proxy.protocol.netty.PreparedFrame;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.EncoderException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A clientbound packet sent to many connections at once, such as a boss bar update or an
+ * announcement. Packets belong to {@link StateRegistry#PLAY} unless another state is given. The
+ * packet is encoded, compressed and framed only once for each protocol version and compression
+ * threshold in use, and the resulting frame is shared by all the connections of that group. Only
+ * encryption remains to be done per connection.
+ *
+ * <p>Prepared packets must be {@linkplain #close() closed} once the broadcast is done to release
+ * the frames they hold.</p>
+ */
+public final class PreparedPacket implements AutoCloseable {
+
+  private final StateRegistry state;
+  private final MinecraftPacket packet;
+  private final Map<Long, ByteBuf> frames = new HashMap<>();
+  private @Nullable VelocityCompressor compressor;
+  private boolean closed;
+
+  public PreparedPacket(MinecraftPacket packet) {
+    this(StateRegistry.PLAY, packet);
+  }
+
+  public PreparedPacket(StateRegistry state, MinecraftPacket packet) {
+    this.state = state;
+    this.packet = packet;
+  }
+
+  public StateRegistry getState() {
+    return state;
+  }
+
+  public MinecraftPacket getPacket() {
+    return packet;
+  }
+
+  /**
+   * Returns a frame of the packet for a connection using the specified protocol version and
+   * compression threshold, encoding it if no connection of this kind was seen before. The caller
+   * owns the returned frame.
+   *
+   * @param version          the protocol version of the connection
+   * @param threshold        the compression threshold of the connection, or {@code -1}
+   * @param alloc            the allocator to use if the frame has to be encoded
+   * @param compressionLevel the compression level to use if the frame has to be compressed
+   * @return the frame to write to the connection
+   * @throws EncoderException if the packet can't be encoded for this version
+   */
+  public synchronized PreparedFrame frame(ProtocolVersion version, int threshold,
+      ByteBufAllocator alloc, int compressionLevel) {
+    if (closed) {
+      throw new IllegalStateException("Prepared packet already closed");
+    }
+    long key = ((long) version.getProtocol() << 32) | (threshold & 0xFFFFFFFFL);
+    ByteBuf frame = frames.get(key);
+    if (frame == null) {
+      frame = encode(version, threshold, alloc, compressionLevel);
+      frames.put(key, frame);
+    }
+    return new PreparedFrame(threshold, frame.retainedDuplicate().asReadOnly());
+  }
+
+  private ByteBuf encode(ProtocolVersion version, int threshold, ByteBufAllocator alloc,
+      int compressionLevel) {
+    ByteBuf body = alloc.directBuffer();
+    try {
+      StateRegistry.PacketRegistry.ProtocolRegistry registry = state
+          .getProtocolRegistry(ProtocolUtils.Direction.CLIENTBOUND, version);
+      ProtocolUtils.writeVarInt(body, registry.getPacketId(packet));
+      packet.encode(body, ProtocolUtils.Direction.CLIENTBOUND, version);
+
+      int uncompressed = body.readableBytes();
+      if (threshold == -1) {
+        ByteBuf out = alloc.directBuffer(ProtocolUtils.varIntBytes(uncompressed) + uncompressed);
+        ProtocolUtils.writeVarInt(out, uncompressed);
+        out.writeBytes(body);
+        return out;
+      } else if (uncompressed < threshold) {
+        ByteBuf out = alloc.directBuffer(
+            ProtocolUtils.varIntBytes(uncompressed + 1) + uncompressed + 1);
+        ProtocolUtils.writeVarInt(out, uncompressed + 1);
+        ProtocolUtils.writeVarInt(out, 0);
+        out.writeBytes(body);
+        return out;
+      } else {
+        return compress(body, alloc, compressionLevel);
+      }
+    } catch (EncoderException e) {
+      throw e;
+    } catch (DataFormatException | RuntimeException e) {
+      throw new EncoderException(e);
+    } finally {
+      body.release();
+    }
+  }
+
+  // Same framing as MinecraftCompressorAndLengthEncoder.
+  private ByteBuf compress(ByteBuf body, ByteBufAllocator alloc, int compressionLevel)
+      throws DataFormatException {
+    if (compressor == null) {
+      compressor = Natives.compress.get().create(compressionLevel);
+    }
+    int uncompressed = body.readableBytes();
+    ByteBuf out = MoreByteBufUtils.preferredBuffer(alloc, compressor,
+        (uncompressed - 1) + 3 + ProtocolUtils.varIntBytes(uncompressed));
+    try {
+      ProtocolUtils.write21BitVarInt(out, 0); // Dummy packet length
+      ProtocolUtils.writeVarInt(out, uncompressed);
+      ByteBuf compatibleIn = MoreByteBufUtils.ensureCompatible(alloc, compressor, body);
+      int startCompressed = out.writerIndex();
+      try {
+        compressor.deflate(compatibleIn, out);
+      } finally {
+        compatibleIn.release();
+      }
+      if (out.writerIndex() - startCompressed >= 1 << 21) {
+        throw new DataFormatException("The packet is too large (over 2MiB compressed).");
+      }
+
+      int writerIndex = out.writerIndex();
+      out.writerIndex(0);
+      ProtocolUtils.write21BitVarInt(out, writerIndex - 3); // Rewrite packet length
+      out.writerIndex(writerIndex);
+      return out;
+    } catch (Exception e) {
+      out.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Releases the frames held by this prepared packet. Frames already handed out stay valid until
+   * they are written.
+   */
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    for (ByteBuf frame : frames.values()) {
+      frame.release();
+    }
+    frames.clear();
+    if (compressor != null) {
+      compressor.close();
+      compressor = null;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "PreparedPacket{"
+        + "state=" + state
+        + ", packet=" + packet
+        + ", frames=" + frames.size()
+        + '}';
+  }
+}
@@ -558,6 +558,16 @@ public enum StateRegistry {
         return supplier.get();
       }
 
+      /**
+       * Determines whether a packet with the specified {@code id} can be decoded by this registry.
+       *
+       * @param id the packet ID
+       * @return {@code true} if the ID is registered, {@code false} otherwise
+       */
+      public boolean containsPacket(final int id) {
+        return this.packetIdToSupplier.containsKey(id);
+      }
+
       /**
        * Attempts to look up the packet ID for an {@code packet}.
        *
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2018-2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
+
+/**
+ * A packet frame that is still compressed, as received from the remote end. The content starts
+ * with the uncompressed data length VarInt and is followed by the zlib-compressed packet. Frames
+ * of this kind are emitted by {@link MinecraftCompressDecoder} for packets the proxy has no
+ * interest in, and are spliced into the other connection by
+ * {@link MinecraftCompressorAndLengthEncoder} without being inflated and deflated again.
+ */
+public final class CompressedFrame extends DefaultByteBufHolder {
+
+  private final int packetId;
+  private final int uncompressedSize;
+
+  /**
+   * Creates a new compressed frame.
+   *
+   * @param packetId         the ID of the packet contained in this frame
+   * @param uncompressedSize the claimed uncompressed size of the packet
+   * @param content          the frame content, including the data length VarInt
+   */
+  public CompressedFrame(int packetId, int uncompressedSize, ByteBuf content) {
+    super(content);
+    this.packetId = packetId;
+    this.uncompressedSize = uncompressedSize;
+  }
+
+  public int getPacketId() {
+    return packetId;
+  }
+
+  public int getUncompressedSize() {
+    return uncompressedSize;
+  }
+
+  @Override
+  public CompressedFrame replace(ByteBuf content) {
+    return new CompressedFrame(packetId, uncompressedSize, content);
+  }
+
+  @Override
+  public CompressedFrame retain() {
+    super.retain();
+    return this;
+  }
+
+  @Override
+  public CompressedFrame retain(int increment) {
+    super.retain(increment);
+    return this;
+  }
+
+  @Override
+  public CompressedFrame touch() {
+    super.touch();
+    return this;
+  }
+
+  @Override
+  public CompressedFrame touch(Object hint) {
+    super.touch(hint);
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "CompressedFrame{"
+        + "packetId=" + packetId
+        + ", uncompressedSize=" + uncompressedSize
+        + ", content=" + content()
+        + '}';
+  }
+}
@@ -21,35 +21,147 @@ import com.google.common.base.Preconditions;
 import com.velocitypowered.natives.encryption.VelocityCipher;
 import com.velocitypowered.natives.util.MoreByteBufUtils;
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToMessageEncoder;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.EncoderException;
+import io.netty.util.concurrent.PromiseNotifier;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Encrypts Minecraft protocol packets using {@link VelocityCipher}.
+ *
+ * <p>CFB8 is byte-serial, so the cost of encrypting small packets is dominated by the per-call
+ * overhead. Buffers written between two flushes are therefore merged and encrypted with a single
+ * call to the cipher, as long as they stay under {@link #MAX_AGGREGATE_SIZE} bytes in total.</p>
  */
-public class MinecraftCipherEncoder extends MessageToMessageEncoder<ByteBuf> {
+public class MinecraftCipherEncoder extends ChannelOutboundHandlerAdapter {
+
+  private static final int MAX_AGGREGATE_SIZE = 64 * 1024;
 
   private final VelocityCipher cipher;
+  private final List<ByteBuf> pending = new ArrayList<>();
+  private final List<ChannelPromise> pendingPromises = new ArrayList<>();
+  private int pendingBytes;
 
   public MinecraftCipherEncoder(VelocityCipher cipher) {
     this.cipher = Preconditions.checkNotNull(cipher, "cipher");
   }
 
   @Override
-  protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception {
-    ByteBuf compatible = MoreByteBufUtils.ensureCompatible(ctx.alloc(), cipher, msg);
+  public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+    if (!(msg instanceof ByteBuf)) {
+      writePending(ctx);
+      ctx.write(msg, promise);
+      return;
+    }
+
+    ByteBuf buf = (ByteBuf) msg;
+    if (buf.readableBytes() >= MAX_AGGREGATE_SIZE) {
+      // Large enough for the call overhead not to matter, and not worth a copy.
+      writePending(ctx);
+      writeEncrypted(ctx, buf, promise);
+      return;
+    }
+    if (pendingBytes + buf.readableBytes() > MAX_AGGREGATE_SIZE) {
+      writePending(ctx);
+    }
+    pending.add(buf);
+    pendingPromises.add(promise);
+    pendingBytes += buf.readableBytes();
+  }
+
+  @Override
+  public void flush(ChannelHandlerContext ctx) {
+    writePending(ctx);
+    ctx.flush();
+  }
+
+  private void writePending(ChannelHandlerContext ctx) {
+    int count = pending.size();
+    if (count == 0) {
+      return;
+    } else if (count == 1) {
+      ByteBuf buf = pending.get(0);
+      ChannelPromise promise = pendingPromises.get(0);
+      clearPending();
+      writeEncrypted(ctx, buf, promise);
+      return;
+    }
+
+    ByteBuf merged = MoreByteBufUtils.preferredBuffer(ctx.alloc(), cipher, pendingBytes);
+    List<ChannelPromise> promises = new ArrayList<>(pendingPromises);
+    for (ByteBuf buf : pending) {
+      merged.writeBytes(buf);
+      buf.release();
+    }
+    clearPending();
+
+    try {
+      cipher.process(merged);
+    } catch (Exception e) {
+      merged.release();
+      EncoderException failure = new EncoderException(e);
+      for (ChannelPromise promise : promises) {
+        promise.tryFailure(failure);
+      }
+      return;
+    }
+
+    promises.removeIf(ChannelPromise::isVoid);
+    if (promises.isEmpty()) {
+      ctx.write(merged, ctx.voidPromise());
+    } else {
+      ChannelPromise promise = ctx.newPromise();
+      promise.addListener(new PromiseNotifier<Void, ChannelFuture>(false,
+          promises.toArray(new ChannelPromise[0])));
+      ctx.write(merged, promise);
+    }
+  }
+
+  private void writeEncrypted(ChannelHandlerContext ctx, ByteBuf msg, ChannelPromise promise) {
+    ByteBuf compatible;
+    try {
+      if (msg.isReadOnly()) {
+        // Shared with other connections (see PreparedFrame), so encrypt a copy of it.
+        compatible = MoreByteBufUtils.preferredBuffer(ctx.alloc(), cipher, msg.readableBytes());
+        compatible.writeBytes(msg);
+      } else {
+        compatible = MoreByteBufUtils.ensureCompatible(ctx.alloc(), cipher, msg);
+      }
+    } finally {
+      msg.release();
+    }
+
     try {
       cipher.process(compatible);
-      out.add(compatible);
     } catch (Exception e) {
       compatible.release(); // compatible will never be used if we throw an exception
-      throw e;
+      promise.tryFailure(new EncoderException(e));
+      return;
     }
+    ctx.write(compatible, promise);
+  }
+
+  private void clearPending() {
+    pending.clear();
+    pendingPromises.clear();
+    pendingBytes = 0;
   }
 
   @Override
   public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+    for (ByteBuf buf : pending) {
+      buf.release();
+    }
+    for (ChannelPromise promise : pendingPromises) {
+      if (!promise.isVoid()) {
+        promise.tryFailure(new EncoderException("Cipher encoder removed"));
+      }
+    }
+    clearPending();
     cipher.close();
   }
 }
@@ -27,6 +27,10 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageDecoder;
 import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Decompresses a Minecraft packet.
@@ -40,8 +44,13 @@ public class MinecraftCompressDecoder extends MessageToMessageDecoder<ByteBuf> {
       Boolean.getBoolean("velocity.increased-compression-cap")
           ? HARD_MAXIMUM_UNCOMPRESSED_SIZE : VANILLA_MAXIMUM_UNCOMPRESSED_SIZE;
 
+  private static final int PEEK_BUFFER_SIZE = 5; // maximum VarInt length
+
   private int threshold;
   private final VelocityCompressor compressor;
+  private @Nullable IntPredicate passthroughFilter;
+  private @Nullable Inflater peekInflater;
+  private byte @Nullable [] peekBuffer;
 
   public MinecraftCompressDecoder(int threshold, VelocityCompressor compressor) {
     this.threshold = threshold;
@@ -50,6 +59,7 @@ public class MinecraftCompressDecoder extends MessageToMessageDecoder<ByteBuf> {
 
   @Override
   protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+    int frameStart = in.readerIndex();
     int claimedUncompressedSize = ProtocolUtils.readVarInt(in);
     if (claimedUncompressedSize == 0) {
       // This message is not compressed.
@@ -63,6 +73,17 @@ public class MinecraftCompressDecoder extends MessageToMessageDecoder<ByteBuf> {
         "Uncompressed size %s exceeds hard threshold of %s", claimedUncompressedSize,
         UNCOMPRESSED_CAP);
 
+    IntPredicate passthroughFilter = this.passthroughFilter;
+    if (passthroughFilter != null) {
+      int packetId = peekPacketId(in);
+      if (!passthroughFilter.test(packetId)) {
+        // Nobody on the proxy is interested in this packet, so hand it over still compressed.
+        out.add(new CompressedFrame(packetId, claimedUncompressedSize,
+            in.retainedSlice(frameStart, in.writerIndex() - frameStart)));
+        return;
+      }
+    }
+
     ByteBuf compatibleIn = ensureCompatible(ctx.alloc(), compressor, in);
     ByteBuf uncompressed = preferredBuffer(ctx.alloc(), compressor, claimedUncompressedSize);
     try {
@@ -76,12 +97,65 @@ public class MinecraftCompressDecoder extends MessageToMessageDecoder<ByteBuf> {
     }
   }
 
+  /**
+   * Inflates just enough of the compressed packet to read its ID, leaving {@code in} untouched.
+   */
+  private int peekPacketId(ByteBuf in) throws DataFormatException {
+    Inflater inflater = this.peekInflater;
+    byte[] peek = this.peekBuffer;
+    if (inflater == null || peek == null) {
+      inflater = this.peekInflater = new Inflater();
+      peek = this.peekBuffer = new byte[PEEK_BUFFER_SIZE];
+    }
+
+    try {
+      inflater.setInput(in.nioBuffer());
+      int read = 0;
+      while (read < peek.length) {
+        int inflated = inflater.inflate(peek, read, peek.length - read);
+        if (inflated == 0) {
+          break;
+        }
+        read += inflated;
+        if ((peek[read - 1] & 0x80) == 0) {
+          break;
+        }
+      }
+
+      int packetId = 0;
+      for (int i = 0; i < read; i++) {
+        packetId |= (peek[i] & 0x7F) << (i * 7);
+        if ((peek[i] & 0x80) == 0) {
+          return packetId;
+        }
+      }
+      throw new DataFormatException("Unable to read packet ID from compressed frame");
+    } finally {
+      inflater.reset();
+    }
+  }
+
   @Override
   public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
     compressor.close();
+    if (peekInflater != null) {
+      peekInflater.end();
+      peekInflater = null;
+    }
   }
 
   public void setThreshold(int threshold) {
     this.threshold = threshold;
   }
+
+  /**
+   * Sets the filter used to decide which compressed packets are decompressed. Compressed packets
+   * whose ID is rejected by {@code passthroughFilter} are emitted as {@link CompressedFrame}s
+   * instead of being inflated.
+   *
+   * @param passthroughFilter the filter to use, or {@code null} to always decompress
+   */
+  public void setPassthroughFilter(@Nullable IntPredicate passthroughFilter) {
+    this.passthroughFilter = passthroughFilter;
+  }
 }
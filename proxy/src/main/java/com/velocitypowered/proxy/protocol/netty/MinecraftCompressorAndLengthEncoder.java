@@ -24,7 +24,10 @@ import com.velocitypowered.natives.util.MoreByteBufUtils;
 import com.velocitypowered.proxy.protocol.ProtocolUtils;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.EncoderException;
 import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.ReferenceCountUtil;
 import java.util.zip.DataFormatException;
 
 /**
@@ -40,6 +43,79 @@ public class MinecraftCompressorAndLengthEncoder extends MessageToByteEncoder<By
     this.compressor = compressor;
   }
 
+  @Override
+  public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
+      throws Exception {
+    if (msg instanceof CompressedFrame) {
+      writeCompressedFrame(ctx, (CompressedFrame) msg, promise);
+    } else if (msg instanceof PreparedFrame) {
+      writePreparedFrame(ctx, (PreparedFrame) msg, promise, threshold);
+    } else {
+      super.write(ctx, msg, promise);
+    }
+  }
+
+  private void writeCompressedFrame(ChannelHandlerContext ctx, CompressedFrame frame,
+      ChannelPromise promise) {
+    ByteBuf out = null;
+    try {
+      ByteBuf content = frame.content();
+      if (frame.getUncompressedSize() >= threshold) {
+        // The frame is valid as-is for this connection, so just put the length in front of it.
+        int length = content.readableBytes();
+        out = allocateFrameBuffer(ctx, ProtocolUtils.varIntBytes(length) + length);
+        ProtocolUtils.writeVarInt(out, length);
+        out.writeBytes(content);
+      } else {
+        // The other side compresses more eagerly than this connection does, which the client
+        // would reject. Inflate the frame and send it uncompressed.
+        ByteBuf duplicate = content.duplicate();
+        ProtocolUtils.readVarInt(duplicate);
+        ByteBuf compatibleIn = MoreByteBufUtils.ensureCompatible(ctx.alloc(), compressor,
+            duplicate);
+        ByteBuf uncompressed = MoreByteBufUtils.preferredBuffer(ctx.alloc(), compressor,
+            frame.getUncompressedSize());
+        try {
+          compressor.inflate(compatibleIn, uncompressed, frame.getUncompressedSize());
+          out = allocateBuffer(ctx, uncompressed, true);
+          encode(ctx, uncompressed, out);
+        } finally {
+          compatibleIn.release();
+          uncompressed.release();
+        }
+      }
+    } catch (Exception e) {
+      if (out != null) {
+        out.release();
+      }
+      promise.setFailure(e instanceof EncoderException ? e : new EncoderException(e));
+      return;
+    } finally {
+      ReferenceCountUtil.release(frame);
+    }
+    ctx.write(out, promise);
+  }
+
+  /**
+   * Writes a {@link PreparedFrame} as-is if it was built for the connection's compression
+   * threshold.
+   *
+   * @param ctx       the handler context
+   * @param frame     the frame to write
+   * @param promise   the write promise
+   * @param threshold the compression threshold of the connection, or {@code -1}
+   */
+  static void writePreparedFrame(ChannelHandlerContext ctx, PreparedFrame frame,
+      ChannelPromise promise, int threshold) {
+    if (frame.getThreshold() != threshold) {
+      ReferenceCountUtil.release(frame);
+      promise.setFailure(new EncoderException("Frame prepared for compression threshold "
+          + frame.getThreshold() + " written to a connection using " + threshold));
+      return;
+    }
+    ctx.write(frame.content(), promise);
+  }
+
   @Override
   protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception {
     int uncompressed = msg.readableBytes();
@@ -86,9 +162,7 @@ public class MinecraftCompressorAndLengthEncoder extends MessageToByteEncoder<By
     if (uncompressed < threshold) {
       int finalBufferSize = uncompressed + 1;
       finalBufferSize += ProtocolUtils.varIntBytes(finalBufferSize);
-      return IS_JAVA_CIPHER
-          ? ctx.alloc().heapBuffer(finalBufferSize)
-          : ctx.alloc().directBuffer(finalBufferSize);
+      return allocateFrameBuffer(ctx, finalBufferSize);
     }
 
     // (maximum data length after compression) + packet length varint + uncompressed data varint
@@ -96,6 +170,10 @@ public class MinecraftCompressorAndLengthEncoder extends MessageToByteEncoder<By
     return MoreByteBufUtils.preferredBuffer(ctx.alloc(), compressor, initialBufferSize);
   }
 
+  private static ByteBuf allocateFrameBuffer(ChannelHandlerContext ctx, int size) {
+    return IS_JAVA_CIPHER ? ctx.alloc().heapBuffer(size) : ctx.alloc().directBuffer(size);
+  }
+
   @Override
   public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
     compressor.close();
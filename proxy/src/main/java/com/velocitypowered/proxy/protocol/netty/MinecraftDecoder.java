@@ -139,6 +139,17 @@ public class MinecraftDecoder extends ChannelInboundHandlerAdapter {
         + " ID " + Integer.toHexString(packetId);
   }
 
+  /**
+   * Determines whether this decoder will decode the packet with the specified ID in the current
+   * state, rather than passing it along as an unknown packet.
+   *
+   * @param packetId the packet ID
+   * @return whether the packet is decoded
+   */
+  public boolean isDecodable(int packetId) {
+    return this.registry.containsPacket(packetId);
+  }
+
   public void setProtocolVersion(ProtocolVersion protocolVersion) {
     this.registry = state.getProtocolRegistry(direction, protocolVersion);
   }
@@ -23,6 +23,7 @@ import com.velocitypowered.proxy.protocol.ProtocolUtils;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.MessageToByteEncoder;
 
 /**
@@ -37,6 +38,17 @@ public class MinecraftVarintLengthEncoder extends MessageToByteEncoder<ByteBuf>
   private MinecraftVarintLengthEncoder() {
   }
 
+  @Override
+  public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
+      throws Exception {
+    if (msg instanceof PreparedFrame) {
+      MinecraftCompressorAndLengthEncoder.writePreparedFrame(ctx, (PreparedFrame) msg, promise,
+          -1);
+    } else {
+      super.write(ctx, msg, promise);
+    }
+  }
+
   @Override
   protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception {
     ProtocolUtils.writeVarInt(out, msg.readableBytes());
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2018-2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
+
+/**
+ * A packet that has already been encoded, compressed and framed for connections using a given
+ * compression threshold, typically shared by many connections through
+ * {@link com.velocitypowered.proxy.protocol.PreparedPacket}. The content is a read-only view of
+ * the shared frame: {@link MinecraftCompressorAndLengthEncoder} and
+ * {@link MinecraftVarintLengthEncoder} pass it through untouched, and
+ * {@link MinecraftCipherEncoder} encrypts a copy of it.
+ */
+public final class PreparedFrame extends DefaultByteBufHolder {
+
+  private final int threshold;
+
+  /**
+   * Creates a new prepared frame.
+   *
+   * @param threshold the compression threshold the frame was built for, or {@code -1} if it was
+   *                  built for connections without compression
+   * @param content   the frame content, including the packet length VarInt
+   */
+  public PreparedFrame(int threshold, ByteBuf content) {
+    super(content);
+    this.threshold = threshold;
+  }
+
+  public int getThreshold() {
+    return threshold;
+  }
+
+  @Override
+  public PreparedFrame replace(ByteBuf content) {
+    return new PreparedFrame(threshold, content);
+  }
+
+  @Override
+  public PreparedFrame retain() {
+    super.retain();
+    return this;
+  }
+
+  @Override
+  public PreparedFrame retain(int increment) {
+    super.retain(increment);
+    return this;
+  }
+
+  @Override
+  public PreparedFrame touch() {
+    super.touch();
+    return this;
+  }
+
+  @Override
+  public PreparedFrame touch(Object hint) {
+    super.touch(hint);
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "PreparedFrame{"
+        + "threshold=" + threshold
+        + ", content=" + content()
+        + '}';
+  }
+}
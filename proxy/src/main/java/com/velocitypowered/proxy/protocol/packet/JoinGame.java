@@ -22,6 +22,7 @@ import com.velocitypowered.api.network.ProtocolVersion;
 import com.velocitypowered.proxy.connection.MinecraftSessionHandler;
 import com.velocitypowered.proxy.connection.registry.DimensionInfo;
 import com.velocitypowered.proxy.protocol.*;
+import com.velocitypowered.proxy.protocol.util.EncodedCompoundTag;
 import io.netty.buffer.ByteBuf;
 import it.unimi.dsi.fastutil.Pair;
 import net.kyori.adventure.nbt.BinaryTagIO;
@@ -30,7 +31,8 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class JoinGame implements MinecraftPacket {
 
-  private static final BinaryTagIO.Reader JOINGAME_READER = BinaryTagIO.reader(4 * 1024 * 1024);
+  private static final int MAX_REGISTRY_SIZE = 4 * 1024 * 1024;
+  private static final BinaryTagIO.Reader JOINGAME_READER = BinaryTagIO.reader(MAX_REGISTRY_SIZE);
   private int entityId;
   private short gamemode;
   private int dimension;
@@ -43,7 +45,7 @@ public class JoinGame implements MinecraftPacket {
   private boolean reducedDebugInfo;
   private boolean showRespawnScreen;
   private ImmutableSet<String> levelNames; // 1.16+
-  private CompoundBinaryTag registry; // 1.16+
+  private @Nullable EncodedCompoundTag registry; // 1.16+
   private DimensionInfo dimensionInfo; // 1.16+
   private CompoundBinaryTag currentDimensionData; // 1.16.2+
   private short previousGamemode; // 1.16+
@@ -162,7 +164,17 @@ public class JoinGame implements MinecraftPacket {
     this.lastDeathPosition = lastDeathPosition;
   }
 
-  public CompoundBinaryTag getRegistry() {
+  /**
+   * Gets the dimension and biome registry sent by the server. The registry is parsed on first
+   * use, prefer {@link #getEncodedRegistry()} when it only has to be passed along.
+   *
+   * @return the parsed registry, or {@code null} before 1.16
+   */
+  public @Nullable CompoundBinaryTag getRegistry() {
+    return registry == null ? null : registry.getTag();
+  }
+
+  public @Nullable EncodedCompoundTag getEncodedRegistry() {
     return registry;
   }
 
@@ -244,7 +256,7 @@ public class JoinGame implements MinecraftPacket {
     this.previousGamemode = buf.readByte();
 
     this.levelNames = ImmutableSet.copyOf(ProtocolUtils.readStringArray(buf));
-    this.registry = ProtocolUtils.readCompoundTag(buf, JOINGAME_READER);
+    this.registry = EncodedCompoundTag.read(buf, JOINGAME_READER, MAX_REGISTRY_SIZE);
     String dimensionIdentifier;
     String levelName = null;
     if (version.compareTo(ProtocolVersion.MINECRAFT_1_16_2) >= 0
@@ -338,7 +350,7 @@ public class JoinGame implements MinecraftPacket {
     buf.writeByte(previousGamemode);
 
     ProtocolUtils.writeStringArray(buf, levelNames.toArray(String[]::new));
-    ProtocolUtils.writeCompoundTag(buf, this.registry);
+    this.registry.write(buf);
     if (version.compareTo(ProtocolVersion.MINECRAFT_1_16_2) >= 0
         && version.compareTo(ProtocolVersion.MINECRAFT_1_19) < 0) {
       ProtocolUtils.writeCompoundTag(buf, currentDimensionData);
@@ -20,19 +20,29 @@ package com.velocitypowered.proxy.protocol.packet.chat;
 import com.velocitypowered.proxy.connection.MinecraftConnection;
 import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
 import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import io.netty.channel.EventLoop;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.concurrent.CompletableFuture;
-import java.util.function.BiConsumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * A precisely ordered queue which allows for outside entries into the ordered queue through
  * piggybacking timestamps.
+ *
+ * <p>The queue is confined to the event loop of the player's connection: calls made from other
+ * threads are handed over to it, so no lock is needed. Packets that are already available when
+ * nothing is waiting ahead of them are written right away.</p>
  */
 public class ChatQueue {
 
-  private final Object internalLock;
+  private static final Logger logger = LogManager.getLogger(ChatQueue.class);
+
   private final ConnectedPlayer player;
-  private CompletableFuture<WrappedPacket> packetFuture;
+  private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+  private Instant lastTimestamp = Instant.EPOCH;
 
   /**
    * Instantiates a {@link ChatQueue} for a specific {@link ConnectedPlayer}.
@@ -41,27 +51,40 @@ public class ChatQueue {
    */
   public ChatQueue(ConnectedPlayer player) {
     this.player = player;
-    this.packetFuture = CompletableFuture.completedFuture(new WrappedPacket(Instant.EPOCH, null));
-    this.internalLock = new Object();
   }
 
   /**
    * Queues a packet sent from the player - all packets must wait until this processes to send their
    * packets. This maintains order on the server-level for the client insertions of commands
-   * and messages. All entries are locked through an internal object lock.
+   * and messages.
    *
    * @param nextPacket the {@link CompletableFuture} which will provide the next-processed packet.
    * @param timestamp  the {@link Instant} timestamp of this packet so we can allow piggybacking.
    */
   public void queuePacket(CompletableFuture<MinecraftPacket> nextPacket, Instant timestamp) {
-    synchronized (internalLock) { // wait for the lock to resolve - we don't want to drop packets
-      MinecraftConnection smc = player.ensureAndGetCurrentServer().ensureConnected();
+    EventLoop eventLoop = player.getConnection().eventLoop();
+    if (!eventLoop.inEventLoop()) {
+      eventLoop.execute(() -> queuePacket(nextPacket, timestamp));
+      return;
+    }
 
-      CompletableFuture<WrappedPacket> nextInLine = WrappedPacket.wrap(timestamp, nextPacket);
-      awaitChat(smc, this.packetFuture,
-          nextInLine); // we await chat, binding `this.packetFuture` -> `nextInLine`
-      this.packetFuture = nextInLine;
+    MinecraftConnection smc = player.ensureAndGetCurrentServer().ensureConnected();
+    if (pending.isEmpty() && nextPacket.isDone()) {
+      // Nothing to wait for, skip the queue.
+      lastTimestamp = timestamp;
+      write(smc, nextPacket.isCompletedExceptionally() ? null : nextPacket.getNow(null));
+      return;
     }
+
+    Entry entry = new Entry(smc, timestamp, null, null);
+    pending.add(entry);
+    nextPacket.whenComplete((packet, throwable) -> {
+      if (eventLoop.inEventLoop()) {
+        complete(entry, throwable == null ? packet : null);
+      } else {
+        eventLoop.execute(() -> complete(entry, throwable == null ? packet : null));
+      }
+    });
   }
 
   /**
@@ -76,48 +99,52 @@ public class ChatQueue {
    */
   public <K, V extends MinecraftPacket> void hijack(K packet,
       InstantPacketMapper<K, V> instantMapper) {
-    synchronized (internalLock) {
-      CompletableFuture<K> trueFuture = CompletableFuture.completedFuture(packet);
-      MinecraftConnection smc = player.ensureAndGetCurrentServer().ensureConnected();
+    EventLoop eventLoop = player.getConnection().eventLoop();
+    if (!eventLoop.inEventLoop()) {
+      eventLoop.execute(() -> hijack(packet, instantMapper));
+      return;
+    }
 
-      this.packetFuture = hijackCurrentPacket(smc, this.packetFuture, trueFuture, instantMapper);
+    MinecraftConnection smc = player.ensureAndGetCurrentServer().ensureConnected();
+    if (pending.isEmpty()) {
+      write(smc, instantMapper.map(lastTimestamp, packet));
+      return;
     }
-  }
 
-  private static BiConsumer<WrappedPacket, Throwable> writePacket(MinecraftConnection connection) {
-    return (wrappedPacket, throwable) -> {
-      if (wrappedPacket != null && !connection.isClosed()) {
-        wrappedPacket.write(connection);
-      }
-    };
+    // The timestamp is only known once the packets ahead of this one are written.
+    @SuppressWarnings("unchecked")
+    InstantPacketMapper<Object, V> mapper = (InstantPacketMapper<Object, V>) instantMapper;
+    Entry entry = new Entry(smc, null, packet, mapper);
+    entry.done = true;
+    pending.add(entry);
   }
 
-  private static <T extends MinecraftPacket> void awaitChat(
-      MinecraftConnection connection,
-      CompletableFuture<WrappedPacket> binder,
-      CompletableFuture<WrappedPacket> future
-  ) {
-    // the binder will run -> then the future will get the `write packet` caller
-    binder.whenComplete((ignored1, ignored2) -> future.whenComplete(writePacket(connection)));
+  private void complete(Entry entry, @Nullable MinecraftPacket packet) {
+    entry.packet = packet;
+    entry.done = true;
+
+    Entry head;
+    while ((head = pending.peek()) != null && head.done) {
+      pending.poll();
+      try {
+        if (head.mapper != null) {
+          // A hijacked packet reuses the timestamp of the packet before it.
+          write(head.connection, head.mapper.map(lastTimestamp, head.packet));
+        } else {
+          lastTimestamp = head.timestamp;
+          write(head.connection, (MinecraftPacket) head.packet);
+        }
+      } catch (Exception e) {
+        // Keep draining, the packets behind this one are ready too.
+        logger.error("Unable to send a queued chat packet for {}", player, e);
+      }
+    }
   }
 
-  private static <K, V extends MinecraftPacket> CompletableFuture<WrappedPacket> hijackCurrentPacket(
-      MinecraftConnection connection,
-      CompletableFuture<WrappedPacket> binder,
-      CompletableFuture<K> future,
-      InstantPacketMapper<K, V> packetMapper
-  ) {
-    CompletableFuture<WrappedPacket> awaitedFuture = new CompletableFuture<>();
-    // the binder will complete -> then the future will get the `write packet` caller
-    binder.whenComplete((previous, ignored) -> {
-      // map the new packet into a better "designed" packet with the hijacked packet's timestamp
-      WrappedPacket.wrap(previous.timestamp,
-              future.thenApply(item -> packetMapper.map(previous.timestamp, item)))
-          .whenCompleteAsync(writePacket(connection), connection.eventLoop())
-          .whenComplete(
-              (packet, throwable) -> awaitedFuture.complete(throwable != null ? null : packet));
-    });
-    return awaitedFuture;
+  private static void write(MinecraftConnection connection, @Nullable MinecraftPacket packet) {
+    if (packet != null && !connection.isClosed()) {
+      connection.write(packet);
+    }
   }
 
   /**
@@ -138,27 +165,20 @@ public class ChatQueue {
     V map(Instant nextInstant, K currentObject);
   }
 
-  private static class WrappedPacket {
+  private static final class Entry {
 
-    private final Instant timestamp;
-    private final MinecraftPacket packet;
+    private final MinecraftConnection connection;
+    private final @Nullable Instant timestamp;
+    private final @Nullable InstantPacketMapper<Object, ?> mapper;
+    private @Nullable Object packet;
+    private boolean done;
 
-    private WrappedPacket(Instant timestamp, MinecraftPacket packet) {
+    private Entry(MinecraftConnection connection, @Nullable Instant timestamp,
+        @Nullable Object packet, @Nullable InstantPacketMapper<Object, ?> mapper) {
+      this.connection = connection;
       this.timestamp = timestamp;
       this.packet = packet;
-    }
-
-    public void write(MinecraftConnection connection) {
-      if (packet != null) {
-        connection.write(packet);
-      }
-    }
-
-    private static CompletableFuture<WrappedPacket> wrap(Instant timestamp,
-        CompletableFuture<MinecraftPacket> nextPacket) {
-      return nextPacket
-          .thenApply(pkt -> new WrappedPacket(timestamp, pkt))
-          .exceptionally(ignored -> new WrappedPacket(timestamp, null));
+      this.mapper = mapper;
     }
   }
 }
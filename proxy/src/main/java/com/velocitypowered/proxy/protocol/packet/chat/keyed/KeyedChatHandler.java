@@ -17,11 +17,11 @@
 
 package com.velocitypowered.proxy.protocol.packet.chat.keyed;
 
-import com.velocitypowered.api.event.EventManager;
 import com.velocitypowered.api.event.player.PlayerChatEvent;
 import com.velocitypowered.api.proxy.crypto.IdentifiedKey;
 import com.velocitypowered.proxy.VelocityServer;
 import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.event.VelocityEventManager;
 import com.velocitypowered.proxy.protocol.MinecraftPacket;
 import com.velocitypowered.proxy.protocol.packet.chat.ChatQueue;
 import java.util.concurrent.CompletableFuture;
@@ -67,9 +67,10 @@ public class KeyedChatHandler implements
   @Override
   public void handlePlayerChatInternal(KeyedPlayerChat packet) {
     ChatQueue chatQueue = this.player.getChatQueue();
-    EventManager eventManager = this.server.getEventManager();
+    VelocityEventManager eventManager = this.server.getEventManager();
     PlayerChatEvent toSend = new PlayerChatEvent(player, packet.getMessage());
-    CompletableFuture<PlayerChatEvent> future = eventManager.fire(toSend);
+    CompletableFuture<PlayerChatEvent> future = eventManager.fire(toSend,
+        player.getConnection().eventLoop());
 
     CompletableFuture<MinecraftPacket> chatFuture;
     IdentifiedKey playerKey = this.player.getIdentifiedKey();
@@ -20,10 +20,10 @@ package com.velocitypowered.proxy.protocol.packet.chat.session;
 import static com.velocitypowered.proxy.protocol.packet.chat.keyed.KeyedChatHandler.invalidCancel;
 import static com.velocitypowered.proxy.protocol.packet.chat.keyed.KeyedChatHandler.invalidChange;
 
-import com.velocitypowered.api.event.EventManager;
 import com.velocitypowered.api.event.player.PlayerChatEvent;
 import com.velocitypowered.proxy.VelocityServer;
 import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.event.VelocityEventManager;
 import com.velocitypowered.proxy.protocol.packet.chat.ChatHandler;
 import com.velocitypowered.proxy.protocol.packet.chat.ChatQueue;
 import org.apache.logging.log4j.LogManager;
@@ -49,10 +49,10 @@ public class SessionChatHandler implements ChatHandler<SessionPlayerChat> {
   @Override
   public void handlePlayerChatInternal(SessionPlayerChat packet) {
     ChatQueue chatQueue = this.player.getChatQueue();
-    EventManager eventManager = this.server.getEventManager();
+    VelocityEventManager eventManager = this.server.getEventManager();
     PlayerChatEvent toSend = new PlayerChatEvent(player, packet.getMessage());
     chatQueue.queuePacket(
-        eventManager.fire(toSend)
+        eventManager.fire(toSend, player.getConnection().eventLoop())
             .thenApply(pme -> {
               PlayerChatEvent.ChatResult chatResult = pme.getResult();
               if (!chatResult.isAllowed()) {
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2018-2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.Hashing;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DecoderException;
+import net.kyori.adventure.nbt.BinaryTagIO;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+
+/**
+ * A named compound tag kept in its network encoding. The tag is only parsed if something asks
+ * for it, and is written back byte for byte, so large NBT blobs the proxy merely forwards (such
+ * as the JoinGame registry) never go through the NBT tree.
+ *
+ * <p>Identical tags are deduplicated by content, so that all the players connected to the same
+ * backend share a single copy.
+ */
+public final class EncodedCompoundTag {
+
+  private static final Cache<Long, EncodedCompoundTag> CACHE = Caffeine.newBuilder()
+      .weakValues()
+      .build();
+  private static final int MAX_DEPTH = 512;
+
+  private final byte[] bytes;
+  private final BinaryTagIO.Reader reader;
+  private volatile @MonotonicNonNull CompoundBinaryTag tag;
+
+  private EncodedCompoundTag(byte[] bytes, BinaryTagIO.Reader reader) {
+    this.bytes = bytes;
+    this.reader = reader;
+  }
+
+  /**
+   * Reads a named compound tag from the {@code buf} without parsing it.
+   *
+   * @param buf      the buffer to read from
+   * @param reader   the reader used if the tag is parsed later on
+   * @param maxBytes the maximum encoded size of the tag
+   * @return the encoded tag, possibly shared with other packets
+   */
+  public static EncodedCompoundTag read(ByteBuf buf, BinaryTagIO.Reader reader, int maxBytes) {
+    int start = buf.readerIndex();
+    skipNamedCompound(buf);
+    int length = buf.readerIndex() - start;
+    if (length > maxBytes) {
+      throw new DecoderException("NBT compound is too large (" + length + " > " + maxBytes + ")");
+    }
+
+    long hash = Hashing.murmur3_128().hashBytes(buf.nioBuffer(start, length)).asLong();
+    EncodedCompoundTag cached = CACHE.getIfPresent(hash);
+    if (cached != null && cached.bytes.length == length
+        && ByteBufUtil.equals(buf, start, Unpooled.wrappedBuffer(cached.bytes), 0, length)) {
+      return cached;
+    }
+    EncodedCompoundTag tag = new EncodedCompoundTag(ByteBufUtil.getBytes(buf, start, length),
+        reader);
+    CACHE.put(hash, tag);
+    return tag;
+  }
+
+  /**
+   * Gets the parsed tag, parsing it on first use.
+   *
+   * @return the compound tag
+   */
+  public CompoundBinaryTag getTag() {
+    CompoundBinaryTag tag = this.tag;
+    if (tag == null) {
+      // Racing threads parse the same bytes, so whichever result wins is fine
+      tag = ProtocolUtils.readCompoundTag(Unpooled.wrappedBuffer(bytes), reader);
+      this.tag = tag;
+    }
+    return tag;
+  }
+
+  /**
+   * Writes the original encoding of the tag to the {@code buf}.
+   *
+   * @param buf the buffer to write to
+   */
+  public void write(ByteBuf buf) {
+    buf.writeBytes(bytes);
+  }
+
+  public int getEncodedSize() {
+    return bytes.length;
+  }
+
+  @Override
+  public String toString() {
+    return "EncodedCompoundTag{"
+        + "encodedSize=" + bytes.length
+        + ", parsed=" + (tag != null)
+        + '}';
+  }
+
+  private static void skipNamedCompound(ByteBuf buf) {
+    byte type = buf.readByte();
+    if (type != 10) {
+      throw new DecoderException("Expected root NBT compound, got tag type " + type);
+    }
+    skipString(buf);
+    skipPayload(buf, type, 0);
+  }
+
+  private static void skipPayload(ByteBuf buf, byte type, int depth) {
+    if (depth > MAX_DEPTH) {
+      throw new DecoderException("NBT compound is too deeply nested");
+    }
+    switch (type) {
+      case 1: // byte
+        buf.skipBytes(Byte.BYTES);
+        break;
+      case 2: // short
+        buf.skipBytes(Short.BYTES);
+        break;
+      case 3: // int
+      case 5: // float
+        buf.skipBytes(Integer.BYTES);
+        break;
+      case 4: // long
+      case 6: // double
+        buf.skipBytes(Long.BYTES);
+        break;
+      case 7: // byte array
+        buf.skipBytes(readLength(buf));
+        break;
+      case 8: // string
+        skipString(buf);
+        break;
+      case 9: // list
+        byte elementType = buf.readByte();
+        int size = readLength(buf);
+        for (int i = 0; i < size; i++) {
+          skipPayload(buf, elementType, depth + 1);
+        }
+        break;
+      case 10: // compound
+        byte entryType;
+        while ((entryType = buf.readByte()) != 0) {
+          skipString(buf);
+          skipPayload(buf, entryType, depth + 1);
+        }
+        break;
+      case 11: // int array
+        buf.skipBytes(Math.multiplyExact(readLength(buf), Integer.BYTES));
+        break;
+      case 12: // long array
+        buf.skipBytes(Math.multiplyExact(readLength(buf), Long.BYTES));
+        break;
+      default:
+        throw new DecoderException("Unknown NBT tag type " + type);
+    }
+  }
+
+  private static void skipString(ByteBuf buf) {
+    buf.skipBytes(buf.readUnsignedShort());
+  }
+
+  private static int readLength(ByteBuf buf) {
+    int length = buf.readInt();
+    if (length < 0) {
+      throw new DecoderException("Negative NBT array length " + length);
+    }
+    return length;
+  }
+}
@@ -24,13 +24,21 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonObject;
 import com.velocitypowered.api.plugin.PluginManager;
 import com.velocitypowered.api.scheduler.ScheduledTask;
 import com.velocitypowered.api.scheduler.Scheduler;
 import com.velocitypowered.api.scheduler.TaskStatus;
+import com.velocitypowered.proxy.util.LatencyHistogram;
+import com.velocitypowered.proxy.util.VirtualThreads;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -39,6 +47,7 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -50,16 +59,33 @@ import org.checkerframework.checker.nullness.qual.Nullable;
  * {@link ScheduledExecutorService} and a dynamically-sized {@link ExecutorService}.
  * Many plugins are accustomed to the Bukkit Scheduler model although it is not relevant
  * in a proxy context.
+ *
+ * <p>Setting {@code -Dvelocity.scheduler-timer=wheel} replaces the timer with a
+ * {@link HashedWheelTimer}, which schedules and cancels in constant time at the cost of
+ * {@code velocity.scheduler-wheel-tick} milliseconds of precision, and is better suited to many
+ * short-lived timers. Setting {@code -Dvelocity.scheduler-virtual-threads=true} runs each task on
+ * its own virtual thread when the runtime supports them, so that blocking tasks are not limited
+ * by the size of the pool.</p>
  */
 public class VelocityScheduler implements Scheduler {
 
   private static final int MAX_SCHEDULER_POOLED_THREAD_CAP = 200;
+  private static final boolean HASHED_WHEEL_TIMER = "wheel"
+      .equalsIgnoreCase(System.getProperty("velocity.scheduler-timer", "executor"));
+  private static final int WHEEL_TICK_MILLIS = Integer
+      .getInteger("velocity.scheduler-wheel-tick", 10);
+  private static final boolean VIRTUAL_THREADS = Boolean
+      .getBoolean("velocity.scheduler-virtual-threads");
 
   private final PluginManager pluginManager;
   private final ExecutorService taskService;
-  private final ScheduledExecutorService timerExecutionService;
+  private final boolean virtualThreads;
+  private final @Nullable ScheduledExecutorService timerExecutionService;
+  private final @Nullable HashedWheelTimer wheelTimer;
   private final Multimap<Object, ScheduledTask> tasksByPlugin = Multimaps.synchronizedMultimap(
       Multimaps.newSetMultimap(new IdentityHashMap<>(), HashSet::new));
+  private final Map<Object, PluginStatistics> statisticsByPlugin =
+      Collections.synchronizedMap(new IdentityHashMap<>());
 
   /**
    * Initalizes the scheduler.
@@ -67,14 +93,38 @@ public class VelocityScheduler implements Scheduler {
    * @param pluginManager the Velocity plugin manager
    */
   public VelocityScheduler(PluginManager pluginManager) {
+    this(pluginManager, HASHED_WHEEL_TIMER, VIRTUAL_THREADS);
+  }
+
+  VelocityScheduler(PluginManager pluginManager, boolean hashedWheelTimer,
+      boolean virtualThreads) {
     this.pluginManager = pluginManager;
-    this.taskService = new ThreadPoolExecutor(1, MAX_SCHEDULER_POOLED_THREAD_CAP,
-        60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
-        new ThreadFactoryBuilder().setDaemon(true)
-            .setNameFormat("Velocity Task Scheduler - #%d").build());
-    this.timerExecutionService = Executors
-        .newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true)
-            .setNameFormat("Velocity Task Scheduler Timer").build());
+    ExecutorService virtualThreadService = virtualThreads
+        ? VirtualThreads.newThreadPerTaskExecutor("Velocity Task Scheduler - #") : null;
+    if (virtualThreadService != null) {
+      this.taskService = virtualThreadService;
+    } else {
+      if (virtualThreads) {
+        Log.logger.warn("Virtual threads are not available on this Java version, scheduled tasks "
+            + "will run on a thread pool instead.");
+      }
+      this.taskService = new ThreadPoolExecutor(1, MAX_SCHEDULER_POOLED_THREAD_CAP,
+          60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+          new ThreadFactoryBuilder().setDaemon(true)
+              .setNameFormat("Velocity Task Scheduler - #%d").build());
+    }
+    this.virtualThreads = virtualThreadService != null;
+    ThreadFactoryBuilder timerThreadFactory = new ThreadFactoryBuilder().setDaemon(true)
+        .setNameFormat("Velocity Task Scheduler Timer");
+    if (hashedWheelTimer) {
+      this.timerExecutionService = null;
+      this.wheelTimer = new HashedWheelTimer(timerThreadFactory.build(), WHEEL_TICK_MILLIS,
+          TimeUnit.MILLISECONDS);
+    } else {
+      this.timerExecutionService = Executors
+          .newSingleThreadScheduledExecutor(timerThreadFactory.build());
+      this.wheelTimer = null;
+    }
   }
 
   @Override
@@ -103,6 +153,32 @@ public class VelocityScheduler implements Scheduler {
     }
   }
 
+  /**
+   * Creates a {@link JsonObject} describing the scheduler backend, and the queueing delay and
+   * execution time of the tasks run by each plugin since startup.
+   *
+   * @return the scheduler statistics
+   */
+  public JsonObject getStatistics() {
+    JsonObject json = new JsonObject();
+    json.addProperty("timer", wheelTimer != null ? "wheel" : "executor");
+    json.addProperty("executor", virtualThreads ? "virtual" : "pooled");
+    JsonObject plugins = new JsonObject();
+    synchronized (statisticsByPlugin) {
+      for (Map.Entry<Object, PluginStatistics> entry : statisticsByPlugin.entrySet()) {
+        String id = pluginManager.fromInstance(entry.getKey())
+            .map(container -> container.getDescription().getId())
+            .orElse(entry.getKey().getClass().getName());
+        JsonObject plugin = new JsonObject();
+        plugin.add("queueDelay", entry.getValue().queueDelay.toJson());
+        plugin.add("executionTime", entry.getValue().executionTime.toJson());
+        plugins.add(id, plugin);
+      }
+    }
+    json.add("plugins", plugins);
+    return json;
+  }
+
   /**
    * Shuts down the Velocity scheduler.
    *
@@ -117,7 +193,11 @@ public class VelocityScheduler implements Scheduler {
     for (ScheduledTask task : terminating) {
       task.cancel();
     }
-    timerExecutionService.shutdown();
+    if (wheelTimer != null) {
+      wheelTimer.stop();
+    } else {
+      timerExecutionService.shutdown();
+    }
     taskService.shutdown();
     return taskService.awaitTermination(10, TimeUnit.SECONDS);
   }
@@ -176,8 +256,16 @@ public class VelocityScheduler implements Scheduler {
     private final Consumer<ScheduledTask> consumer;
     private final long delay;
     private final long repeat;
+    private final PluginStatistics statistics;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder queueDelayNanos = new LongAdder();
+    private final LongAdder executionNanos = new LongAdder();
     private @Nullable ScheduledFuture<?> future;
+    private volatile @Nullable Timeout timeout;
+    private volatile boolean cancelled;
+    private volatile boolean finished;
     private volatile @Nullable Thread currentTaskThread;
+    private long nextRunNanos; // only updated by the timer thread once scheduled
 
     private VelocityTask(Object plugin, Runnable runnable, Consumer<ScheduledTask> consumer,
         long delay, long repeat) {
@@ -186,10 +274,14 @@ public class VelocityScheduler implements Scheduler {
       this.consumer = consumer;
       this.delay = delay;
       this.repeat = repeat;
+      this.statistics = statisticsByPlugin.computeIfAbsent(plugin, k -> new PluginStatistics());
     }
 
     void schedule() {
-      if (repeat == 0) {
+      this.nextRunNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+      if (wheelTimer != null) {
+        this.timeout = wheelTimer.newTimeout(t -> run(), delay, TimeUnit.MILLISECONDS);
+      } else if (repeat == 0) {
         this.future = timerExecutionService.schedule(this, delay, TimeUnit.MILLISECONDS);
       } else {
         this.future = timerExecutionService
@@ -204,6 +296,14 @@ public class VelocityScheduler implements Scheduler {
 
     @Override
     public TaskStatus status() {
+      if (wheelTimer != null) {
+        if (cancelled) {
+          return TaskStatus.CANCELLED;
+        }
+        // An expired timeout only means the task was handed to the task service.
+        return finished ? TaskStatus.FINISHED : TaskStatus.SCHEDULED;
+      }
+
       if (future == null) {
         return TaskStatus.SCHEDULED;
       }
@@ -221,8 +321,15 @@ public class VelocityScheduler implements Scheduler {
 
     @Override
     public void cancel() {
-      if (future != null) {
-        future.cancel(false);
+      if (future != null || timeout != null) {
+        cancelled = true;
+        if (future != null) {
+          future.cancel(false);
+        }
+        Timeout current = timeout;
+        if (current != null) {
+          current.cancel();
+        }
 
         Thread cur = currentTaskThread;
         if (cur != null) {
@@ -233,10 +340,41 @@ public class VelocityScheduler implements Scheduler {
       }
     }
 
+    @Override
+    public long executionCount() {
+      return executions.sum();
+    }
+
+    @Override
+    public Duration averageQueueDelay() {
+      long count = executions.sum();
+      return count == 0 ? Duration.ZERO : Duration.ofNanos(queueDelayNanos.sum() / count);
+    }
+
+    @Override
+    public Duration averageExecutionTime() {
+      long count = executions.sum();
+      return count == 0 ? Duration.ZERO : Duration.ofNanos(executionNanos.sum() / count);
+    }
+
     @Override
     public void run() {
+      long scheduledAt = nextRunNanos;
+      if (repeat != 0) {
+        nextRunNanos = scheduledAt + TimeUnit.MILLISECONDS.toNanos(repeat);
+        if (wheelTimer != null && !cancelled) {
+          // The wheel has no fixed-rate timeouts, aim for the next period to avoid drifting
+          Timeout next = wheelTimer.newTimeout(t -> run(),
+              Math.max(0, nextRunNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+          this.timeout = next;
+          if (cancelled) {
+            next.cancel();
+          }
+        }
+      }
       taskService.execute(() -> {
         currentTaskThread = Thread.currentThread();
+        long startedAt = System.nanoTime();
         try {
           if (runnable != null) {
             runnable.run();
@@ -256,6 +394,13 @@ public class VelocityScheduler implements Scheduler {
                 e);
           }
         } finally {
+          long queueDelay = Math.max(0, startedAt - scheduledAt);
+          long executionTime = System.nanoTime() - startedAt;
+          queueDelayNanos.add(queueDelay);
+          executionNanos.add(executionTime);
+          executions.increment();
+          statistics.queueDelay.record(queueDelay);
+          statistics.executionTime.record(executionTime);
           if (repeat == 0) {
             onFinish();
           }
@@ -265,10 +410,17 @@ public class VelocityScheduler implements Scheduler {
     }
 
     private void onFinish() {
+      finished = true;
       tasksByPlugin.remove(plugin, this);
     }
   }
 
+  private static final class PluginStatistics {
+
+    private final LatencyHistogram queueDelay = new LatencyHistogram();
+    private final LatencyHistogram executionTime = new LatencyHistogram();
+  }
+
   private static class Log {
 
     private static final Logger logger = LogManager.getLogger(VelocityTask.class);
@@ -26,6 +26,7 @@ import static com.velocitypowered.proxy.network.Connections.READ_TIMEOUT;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.velocitypowered.api.network.ProtocolVersion;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.messages.ChannelIdentifier;
 import com.velocitypowered.api.proxy.server.PingOptions;
@@ -36,6 +37,7 @@ import com.velocitypowered.proxy.VelocityServer;
 import com.velocitypowered.proxy.connection.MinecraftConnection;
 import com.velocitypowered.proxy.connection.backend.VelocityServerConnection;
 import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.protocol.PreparedPacket;
 import com.velocitypowered.proxy.protocol.ProtocolUtils;
 import com.velocitypowered.proxy.protocol.netty.MinecraftDecoder;
 import com.velocitypowered.proxy.protocol.netty.MinecraftEncoder;
@@ -49,6 +51,8 @@ import io.netty.channel.ChannelInitializer;
 import io.netty.channel.EventLoop;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -56,6 +60,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.audience.ForwardingAudience;
+import net.kyori.adventure.identity.Identity;
+import net.kyori.adventure.text.Component;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -172,6 +178,36 @@ public class VelocityRegisteredServer implements RegisteredServer, ForwardingAud
     return false;
   }
 
+  @Override
+  public void sendMessage(@NonNull Component message) {
+    this.sendMessage(Identity.nil(), message);
+  }
+
+  @Override
+  public void sendMessage(@NonNull Identity source, @NonNull Component message) {
+    Preconditions.checkNotNull(message, "message");
+    // Players with the same protocol version and rendered message share a single prepared packet.
+    Map<ProtocolVersion, Map<Component, PreparedPacket>> prepared =
+        new EnumMap<>(ProtocolVersion.class);
+    try {
+      for (ConnectedPlayer player : players.values()) {
+        Component translated = player.translateMessage(message);
+        PreparedPacket packet = prepared
+            .computeIfAbsent(player.getProtocolVersion(), version -> new HashMap<>())
+            .computeIfAbsent(translated, component -> new PreparedPacket(
+                player.getChatBuilderFactory().builder()
+                    .component(component)
+                    .forIdentity(source)
+                    .toClient()));
+        player.getConnection().write(packet);
+      }
+    } finally {
+      for (Map<Component, PreparedPacket> packets : prepared.values()) {
+        packets.values().forEach(PreparedPacket::close);
+      }
+    }
+  }
+
   @Override
   public String toString() {
     return "registered server: " + serverInfo;
@@ -28,11 +28,14 @@ import com.google.gson.JsonParser;
 import com.velocitypowered.api.plugin.PluginContainer;
 import com.velocitypowered.api.plugin.PluginDescription;
 import com.velocitypowered.api.plugin.meta.PluginDependency;
+import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import com.velocitypowered.api.proxy.config.ProxyConfig;
 import com.velocitypowered.api.proxy.server.RegisteredServer;
 import com.velocitypowered.api.util.ProxyVersion;
 import com.velocitypowered.natives.util.Natives;
+import com.velocitypowered.proxy.connection.MinecraftConnection;
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
 
 import java.net.Inet4Address;
 import java.net.Inet6Address;
@@ -94,6 +97,36 @@ public enum InformationUtils {
     return plugins;
   }
 
+  /**
+   * Creates a {@link JsonObject} containing flush statistics summed over the connections of all
+   * online players.
+   *
+   * @param proxy the proxy instance to retrieve from
+   * @return {@link JsonObject} containing the flush statistics
+   */
+  public static JsonObject collectFlushStatistics(ProxyServer proxy) {
+    int players = 0;
+    long flushes = 0;
+    long packets = 0;
+    double flushesPerSecond = 0;
+    for (Player player : proxy.getAllPlayers()) {
+      MinecraftConnection connection = ((ConnectedPlayer) player).getConnection();
+      players++;
+      flushes += connection.getFlushCount();
+      packets += connection.getFlushedPacketCount();
+      flushesPerSecond += connection.getFlushesPerSecond();
+    }
+
+    JsonObject statistics = new JsonObject();
+    statistics.addProperty("players", players);
+    statistics.addProperty("flushes", flushes);
+    statistics.addProperty("flushedPackets", packets);
+    statistics.addProperty("averageFlushesPerSecond",
+        players == 0 ? 0 : flushesPerSecond / players);
+    statistics.addProperty("packetsPerFlush", flushes == 0 ? 0 : (double) packets / flushes);
+    return statistics;
+  }
+
   /**
    * Creates a {@link JsonObject} containing information about the current environment the project
    * is run under.
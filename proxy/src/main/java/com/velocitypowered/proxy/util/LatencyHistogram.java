@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.util;
+
+import com.google.gson.JsonObject;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations using fixed millisecond buckets, cheap enough to be updated from any
+ * thread on hot paths.
+ */
+public final class LatencyHistogram {
+
+  private static final long[] BUCKET_BOUNDS_MILLIS = {
+      1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000
+  };
+
+  private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MILLIS.length + 1];
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+
+  /**
+   * Creates an empty histogram.
+   */
+  public LatencyHistogram() {
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records a duration.
+   *
+   * @param nanos the duration in nanoseconds
+   */
+  public void record(long nanos) {
+    long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+    int bucket = 0;
+    while (bucket < BUCKET_BOUNDS_MILLIS.length && millis >= BUCKET_BOUNDS_MILLIS[bucket]) {
+      bucket++;
+    }
+    buckets[bucket].increment();
+    count.increment();
+    totalNanos.add(nanos);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Returns the average of the recorded durations.
+   *
+   * @return the average duration in milliseconds
+   */
+  public double getAverageMillis() {
+    long recorded = count.sum();
+    return recorded == 0 ? 0 : totalNanos.sum() / 1e6 / recorded;
+  }
+
+  /**
+   * Creates a {@link JsonObject} with the number of durations in each bucket, keyed by the upper
+   * bound of the bucket.
+   *
+   * @return the histogram as JSON
+   */
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    json.addProperty("count", count.sum());
+    json.addProperty("averageMillis", getAverageMillis());
+    JsonObject bucketsJson = new JsonObject();
+    for (int i = 0; i < buckets.length; i++) {
+      String label = i < BUCKET_BOUNDS_MILLIS.length ? "<" + BUCKET_BOUNDS_MILLIS[i] + "ms"
+          : ">=" + BUCKET_BOUNDS_MILLIS[BUCKET_BOUNDS_MILLIS.length - 1] + "ms";
+      bucketsJson.addProperty(label, buckets[i].sum());
+    }
+    json.add("buckets", bucketsJson);
+    return json;
+  }
+}
@@ -1,76 +1,109 @@
 package com.velocitypowered.proxy.util;
 
+import com.velocitypowered.proxy.network.socket.Server;
+import com.velocitypowered.proxy.thread.VelocityThread;
 import com.velocitypowered.proxy.util.binary.BinaryBuffer;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
-import java.lang.ref.Cleaner;
-import java.lang.ref.SoftReference;
 import java.nio.ByteBuffer;
-import java.util.Collection;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
+/**
+ * A bounded pool of reusable objects, mostly direct buffers.
+ * <p>
+ * Each {@link VelocityThread} (e.g. the socket workers) caches objects in its own magazine, so that most operations
+ * do not touch any shared state. Magazines exchange half of their content with a bounded global depot when they run
+ * empty or full, objects which do not fit in the depot are left to the GC.
+ * <p>
+ * Magazines are bounded in bytes as well, objects too large for two of them to fit go straight to the depot.
+ */
 @ApiStatus.Internal
 @ApiStatus.Experimental
 public final class ObjectPool<T> {
 
-    private static final int QUEUE_SIZE = 32_768;
     private static final int BUFFER_SIZE = Integer.getInteger("minestom.pooled-buffer-size", 262_143);
+    private static final long DEPOT_BYTES = Long.getLong("minestom.pool-depot-bytes", 67_108_864);
+    private static final int MAGAZINE_SIZE = Integer.getInteger("minestom.pool-magazine-size", 16);
+    private static final long MAGAZINE_BYTES = Long.getLong("minestom.pool-magazine-bytes", 1_048_576);
 
-    public static final ObjectPool<BinaryBuffer> BUFFER_POOL = new ObjectPool<>(() -> BinaryBuffer.ofSize(BUFFER_SIZE), BinaryBuffer::clear);
-    public static final ObjectPool<ByteBuffer> PACKET_POOL = new ObjectPool<>(() -> ByteBuffer.allocateDirect(Server.MAX_PACKET_SIZE), ByteBuffer::clear);
+    public static final ObjectPool<BinaryBuffer> BUFFER_POOL = new ObjectPool<>(BUFFER_SIZE,
+            () -> BinaryBuffer.ofSize(BUFFER_SIZE), BinaryBuffer::clear);
+
+    // Packet size classes
+    public static final int SMALL_PACKET_SIZE = 4_096;
+    public static final int MEDIUM_PACKET_SIZE = 65_536;
+    public static final ObjectPool<ByteBuffer> SMALL_PACKET_POOL = newPacketPool(SMALL_PACKET_SIZE);
+    public static final ObjectPool<ByteBuffer> MEDIUM_PACKET_POOL = newPacketPool(MEDIUM_PACKET_SIZE);
+    public static final ObjectPool<ByteBuffer> PACKET_POOL = newPacketPool(Server.MAX_PACKET_SIZE);
 
-    private final Cleaner cleaner = Cleaner.create();
-    private final MessagePassingQueue<SoftReference<T>> pool = new MpmcUnboundedXaddArrayQueue<>(QUEUE_SIZE);
     private final Supplier<T> supplier;
     private final UnaryOperator<T> sanitizer;
+    private final ArrayBlockingQueue<T> depot;
+    private final int magazineSize; // 0 if the objects are too large to be cached per thread
+    private final ThreadLocal<Magazine> magazine = ThreadLocal.withInitial(Magazine::new);
 
-    ObjectPool(Supplier<T> supplier, UnaryOperator<T> sanitizer) {
+    ObjectPool(int objectSize, Supplier<T> supplier, UnaryOperator<T> sanitizer) {
         this.supplier = supplier;
         this.sanitizer = sanitizer;
+        final int depotSize = (int) Math.max(1, Math.min(Integer.MAX_VALUE, DEPOT_BYTES / objectSize));
+        this.depot = new ArrayBlockingQueue<>(depotSize);
+        // Magazines exchange half of their content with the depot, so they need room for at least 2 objects.
+        // Smaller ones would go past the byte bound, the threads use the depot directly instead.
+        final long magazineObjects = Math.min(MAGAZINE_SIZE, Math.min(depotSize, MAGAZINE_BYTES / objectSize));
+        this.magazineSize = magazineObjects < 2 ? 0 : (int) magazineObjects;
     }
 
-    public @NotNull T get() {
-        T result;
-        SoftReference<T> ref;
-        while ((ref = pool.poll()) != null) {
-            if ((result = ref.get()) != null) return result;
-        }
-        return supplier.get();
+    private static ObjectPool<ByteBuffer> newPacketPool(int size) {
+        return new ObjectPool<>(size, () -> ByteBuffer.allocateDirect(size), ByteBuffer::clear);
+    }
+
+    /**
+     * Gets the smallest packet pool whose buffers can hold {@code size} bytes.
+     *
+     * @param size the required buffer capacity
+     * @return the packet pool to borrow from
+     * @throws IllegalArgumentException if {@code size} is larger than {@link Server#MAX_PACKET_SIZE}
+     */
+    public static @NotNull ObjectPool<ByteBuffer> packetPool(int size) {
+        if (size <= SMALL_PACKET_SIZE) return SMALL_PACKET_POOL;
+        if (size <= MEDIUM_PACKET_SIZE) return MEDIUM_PACKET_POOL;
+        if (size <= Server.MAX_PACKET_SIZE) return PACKET_POOL;
+        throw new IllegalArgumentException("Packet size " + size + " exceeds " + Server.MAX_PACKET_SIZE);
     }
 
-    public @NotNull T getAndRegister(@NotNull Object ref) {
-        T result = get();
-        register(ref, result);
-        return result;
+    public @NotNull T get() {
+        final T result = usesMagazine() ? magazine.get().pop() : depot.poll();
+        return result != null ? result : supplier.get();
     }
 
     public void add(@NotNull T object) {
         object = sanitizer.apply(object);
-        this.pool.offer(new SoftReference<>(object));
+        if (usesMagazine()) {
+            magazine.get().push(object);
+        } else {
+            this.depot.offer(object);
+        }
     }
 
+    /**
+     * Drops the objects from the depot, objects cached by threads are kept.
+     */
     public void clear() {
-        this.pool.clear();
+        this.depot.clear();
     }
 
+    /**
+     * Gets the number of objects in the depot, excluding the ones cached by threads.
+     *
+     * @return the depot size
+     */
     public int count() {
-        return pool.size();
-    }
-
-    public void register(@NotNull Object ref, @NotNull AtomicReference<T> objectRef) {
-        this.cleaner.register(ref, new BufferRefCleaner<>(this, objectRef));
-    }
-
-    public void register(@NotNull Object ref, @NotNull T object) {
-        this.cleaner.register(ref, new BufferCleaner<>(this, object));
-    }
-
-    public void register(@NotNull Object ref, @NotNull Collection<T> objects) {
-        this.cleaner.register(ref, new BuffersCleaner<>(this, objects));
+        return depot.size();
     }
 
     public @NotNull Holder hold() {
@@ -86,26 +119,45 @@ public final class ObjectPool<T> {
         }
     }
 
-    private record BufferRefCleaner<T>(ObjectPool<T> pool, AtomicReference<T> objectRef) implements Runnable {
-        @Override
-        public void run() {
-            this.pool.add(objectRef.get());
-        }
+    private boolean usesMagazine() {
+        return magazineSize > 0 && Thread.currentThread() instanceof VelocityThread;
     }
 
-    private record BufferCleaner<T>(ObjectPool<T> pool, T object) implements Runnable {
-        @Override
-        public void run() {
-            this.pool.add(object);
+    /**
+     * Objects cached by a single thread, used as a stack so that the most recently used (cache-hot) object is reused first.
+     */
+    private final class Magazine {
+        private final Object[] objects = new Object[magazineSize];
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        T pop() {
+            if (size == 0) {
+                // Refill half of the magazine from the depot
+                T object;
+                while (size < magazineSize / 2 && (object = depot.poll()) != null) {
+                    objects[size++] = object;
+                }
+                if (size == 0) return null;
+            }
+            final T object = (T) objects[--size];
+            objects[size] = null;
+            return object;
         }
-    }
 
-    private record BuffersCleaner<T>(ObjectPool<T> pool, Collection<T> objects) implements Runnable {
-        @Override
-        public void run() {
-            for (T buffer : objects) {
-                this.pool.add(buffer);
+        @SuppressWarnings("unchecked")
+        void push(T object) {
+            if (size == magazineSize) {
+                // Flush the oldest half to the depot, dropping what does not fit
+                final int half = magazineSize / 2;
+                for (int i = 0; i < half; i++) {
+                    depot.offer((T) objects[i]);
+                }
+                System.arraycopy(objects, half, objects, 0, size - half);
+                Arrays.fill(objects, size - half, size, null);
+                size -= half;
             }
+            objects[size++] = object;
         }
     }
 
@@ -131,4 +183,4 @@ public final class ObjectPool<T> {
         }
     }
 
-}
\ No newline at end of file
+}
@@ -1,25 +1,31 @@
 package com.velocitypowered.proxy.util;
 
 import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.natives.compression.JavaVelocityCompressor;
+import com.velocitypowered.natives.compression.VelocityCompressor;
 import com.velocitypowered.proxy.adventure.ComponentHolder;
 import com.velocitypowered.proxy.network.NetworkBuffer;
 import com.velocitypowered.proxy.network.packet.proxy.*;
+import com.velocitypowered.proxy.network.socket.Server;
+import com.velocitypowered.proxy.network.socket.Worker;
 import com.velocitypowered.proxy.util.binary.BinaryBuffer;
 import com.velocitypowered.proxy.util.binary.BinaryUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TranslatableComponent;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
+import java.nio.BufferOverflowException;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.zip.DataFormatException;
-import java.util.zip.Deflater;
 
 /**
  * Utils class for packets. Including writing a {@link ServerPacket} into a {@link ByteBuffer}
@@ -31,7 +37,9 @@ import java.util.zip.Deflater;
  */
 public final class PacketUtils {
 
-    private static final ThreadLocal<Deflater> LOCAL_DEFLATER = ThreadLocal.withInitial(Deflater::new);
+    // Only used by threads which are not a Worker, the Java implementation is released by its cleaner once the thread dies
+    private static final ThreadLocal<VelocityCompressor> LOCAL_COMPRESSOR =
+            ThreadLocal.withInitial(() -> JavaVelocityCompressor.FACTORY.create(Server.COMPRESSION_LEVEL));
 
     public static final boolean GROUPED_PACKET = PropertyUtils.getBoolean("minestom.grouped-packet", true);
     public static final boolean CACHED_PACKET = PropertyUtils.getBoolean("minestom.cached-packet", true);
@@ -150,11 +158,37 @@ public final class PacketUtils {
         }
     }
 
+    /**
+     * Gets the compressor to use from the current thread.
+     * <p>
+     * Worker threads own a native compressor (when available) from {@link com.velocitypowered.natives.util.Natives#compress},
+     * any other thread gets its own Java compressor.
+     *
+     * @return the compressor of the current thread
+     */
     @ApiStatus.Internal
-    public static @Nullable BinaryBuffer readPackets(@NotNull BinaryBuffer readBuffer, boolean compressed,
-                                                     BiConsumer<Integer, ByteBuffer> payloadConsumer) throws DataFormatException {
-        BinaryBuffer remaining = null;
-        ByteBuffer pool = ObjectPool.PACKET_POOL.get();
+    public static @NotNull VelocityCompressor localCompressor() {
+        if (Thread.currentThread() instanceof Worker worker) return worker.compressor();
+        return LOCAL_COMPRESSOR.get();
+    }
+
+    @ApiStatus.Internal
+    public static void readPackets(@NotNull BinaryBuffer readBuffer, boolean compressed,
+                                   BiConsumer<Integer, ByteBuffer> payloadConsumer) throws DataFormatException {
+        readPackets(readBuffer, compressed, localCompressor(), payloadConsumer);
+    }
+
+    /**
+     * Reads all the complete packets from a buffer.
+     * <p>
+     * The buffer is left positioned at the start of the last incomplete packet (if any),
+     * which is then up to the caller to keep until the next read.
+     */
+    @ApiStatus.Internal
+    public static void readPackets(@NotNull BinaryBuffer readBuffer, boolean compressed,
+                                   @NotNull VelocityCompressor compressor,
+                                   BiConsumer<Integer, ByteBuffer> payloadConsumer) throws DataFormatException {
+        ByteBuffer pool = null; // Inflate buffer, borrowed from the size class of the largest packet
         while (readBuffer.readableBytes() > 0) {
             final var beginMark = readBuffer.mark();
             try {
@@ -179,12 +213,23 @@ public final class PacketUtils {
                         decompressedSize = payloadLength;
                     } else {
                         // Decompress to content buffer
+                        if (dataLength > Server.MAX_PACKET_SIZE) {
+                            throw new DataFormatException("Uncompressed size " + dataLength + " exceeds " + Server.MAX_PACKET_SIZE);
+                        }
+                        if (pool == null || pool.capacity() < dataLength) {
+                            if (pool != null) ObjectPool.packetPool(pool.capacity()).add(pool);
+                            pool = ObjectPool.packetPool(dataLength).get();
+                        }
                         content = BinaryBuffer.wrap(pool);
                         decompressedSize = dataLength;
-                        Inflater inflater = new Inflater(); // TODO: Pool?
-                        inflater.setInput(readBuffer.asByteBuffer(readBuffer.readerOffset(), payloadLength));
-                        inflater.inflate(content.asByteBuffer(0, dataLength));
-                        inflater.reset();
+                        ByteBuf source = Unpooled.wrappedBuffer(readBuffer.asByteBuffer(readBuffer.readerOffset(), payloadLength));
+                        ByteBuf destination = Unpooled.wrappedBuffer(content.asByteBuffer(0, dataLength)).clear();
+                        try {
+                            compressor.inflate(source, destination, dataLength);
+                        } finally {
+                            source.release();
+                            destination.release();
+                        }
                     }
                 }
                 // Slice packet
@@ -199,12 +244,10 @@ public final class PacketUtils {
                 readBuffer.readerOffset(readerStart + packetLength);
             } catch (BufferUnderflowException e) {
                 readBuffer.reset(beginMark);
-                remaining = BinaryBuffer.copy(readBuffer);
                 break;
             }
         }
-        ObjectPool.PACKET_POOL.add(pool);
-        return remaining;
+        if (pool != null) ObjectPool.packetPool(pool.capacity()).add(pool);
     }
 
     public static void writeFramedPacket(@NotNull ByteBuffer buffer,
@@ -218,6 +261,14 @@ public final class PacketUtils {
                                          int id,
                                          @NotNull NetworkBuffer.Writer writer,
                                          int compressionThreshold) {
+        writeFramedPacket(buffer, id, writer, compressionThreshold, localCompressor());
+    }
+
+    public static void writeFramedPacket(@NotNull ByteBuffer buffer,
+                                         int id,
+                                         @NotNull NetworkBuffer.Writer writer,
+                                         int compressionThreshold,
+                                         @NotNull VelocityCompressor compressor) {
         NetworkBuffer networkBuffer = new NetworkBuffer(buffer, false);
         if (compressionThreshold <= 0) {
             // Uncompressed format https://wiki.vg/Protocol#Without_compression
@@ -240,15 +291,21 @@ public final class PacketUtils {
         final boolean compressed = packetSize >= compressionThreshold;
         if (compressed) {
             // Packet large enough, compress it
-            try (var hold = ObjectPool.PACKET_POOL.hold()) {
+            // The compressors would try to grow the destination, which cannot go past the scratch buffer
+            if (buffer.capacity() - contentStart < deflateBound(packetSize)) throw new BufferOverflowException();
+            try (var hold = ObjectPool.packetPool(packetSize).hold()) {
                 final ByteBuffer input = hold.get().put(0, buffer, contentStart, packetSize);
-                Deflater deflater = LOCAL_DEFLATER.get();
-                deflater.setInput(input.limit(packetSize));
-                deflater.finish();
-                deflater.deflate(buffer.position(contentStart));
-                deflater.reset();
-
-                networkBuffer.skipWrite(buffer.position() - contentStart);
+                ByteBuf source = Unpooled.wrappedBuffer(input.slice(0, packetSize));
+                ByteBuf destination = Unpooled.wrappedBuffer(buffer.slice(contentStart, buffer.capacity() - contentStart)).clear();
+                try {
+                    compressor.deflate(source, destination);
+                    networkBuffer.writeIndex(contentStart + destination.writerIndex());
+                } catch (DataFormatException e) {
+                    throw new IllegalStateException("Unable to compress packet " + id, e);
+                } finally {
+                    source.release();
+                    destination.release();
+                }
             }
         }
         // Packet header (Packet + Data Length)
@@ -258,6 +315,16 @@ public final class PacketUtils {
         buffer.position(networkBuffer.writeIndex());
     }
 
+    /**
+     * Gets the largest zlib stream the compressors can produce for {@code size} bytes of input.
+     * <p>
+     * Covers both zlib and libdeflate, which store incompressible data in blocks of at least 4 KiB,
+     * each with a 5 bytes header, plus the zlib wrapper and some padding.
+     */
+    private static int deflateBound(int size) {
+        return size + 5 * (size / 4096 + 1) + 16;
+    }
+
     @ApiStatus.Internal
     public static ByteBuffer createFramedPacket(@NotNull ByteBuffer buffer, @NotNull ProxyPacket packet, boolean compression) {
         writeFramedPacket(buffer, packet, compression);
@@ -269,14 +336,55 @@ public final class PacketUtils {
         return createFramedPacket(buffer, packet, MinecraftServer.getCompressionThreshold() > 0);
     }
 
+    /**
+     * Frames a packet into a pooled scratch buffer.
+     * <p>
+     * The buffer size class is picked from {@link ProxyPacket#encodeSizeHint()}, or the smallest one if unknown,
+     * and the packet is written again to the next size class when it does not fit.
+     *
+     * @param packet      the packet to frame
+     * @param compression true if the connection is compressed
+     * @param function    receives the framed packet, the buffer is only valid during the call
+     * @return the function result
+     */
+    @ApiStatus.Internal
+    public static <R> R withFramedPacket(@NotNull ProxyPacket packet, boolean compression,
+                                         @NotNull Function<@NotNull ByteBuffer, R> function) {
+        return withFramedPacket(packet, compression ? MinecraftServer.getCompressionThreshold() : 0,
+                localCompressor(), function);
+    }
+
+    @ApiStatus.Internal
+    public static <R> R withFramedPacket(@NotNull ProxyPacket packet, int compressionThreshold,
+                                         @NotNull VelocityCompressor compressor,
+                                         @NotNull Function<@NotNull ByteBuffer, R> function) {
+        final int hint = packet.encodeSizeHint();
+        // Packet length, data length and id headers
+        int size = hint < 0 ? ObjectPool.SMALL_PACKET_SIZE : Math.min(hint + 3 + 3 + 5, Server.MAX_PACKET_SIZE);
+        while (true) {
+            final ObjectPool<ByteBuffer> pool = ObjectPool.packetPool(size);
+            try (var hold = pool.hold()) {
+                final ByteBuffer buffer = hold.get();
+                try {
+                    writeFramedPacket(buffer, packet.getId(), packet, compressionThreshold, compressor);
+                    buffer.flip();
+                } catch (IndexOutOfBoundsException | BufferOverflowException e) {
+                    if (pool == ObjectPool.PACKET_POOL) throw e;
+                    size = buffer.capacity() + 1;
+                    continue;
+                }
+                return function.apply(buffer);
+            }
+        }
+    }
+
     @ApiStatus.Internal
     public static FramedPacket allocateTrimmedPacket(@NotNull ProxyPacket packet) {
-        try (var hold = ObjectPool.PACKET_POOL.hold()) {
-            final ByteBuffer temp = PacketUtils.createFramedPacket(hold.get(), packet);
+        return withFramedPacket(packet, MinecraftServer.getCompressionThreshold() > 0, temp -> {
             final int size = temp.remaining();
             final ByteBuffer buffer = ByteBuffer.allocateDirect(size).put(0, temp, 0, size);
             return new FramedPacket(packet, buffer);
-        }
+        });
     }
 
 }
\ No newline at end of file
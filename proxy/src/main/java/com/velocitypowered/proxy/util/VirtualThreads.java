@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Creates executors running on virtual threads. Velocity targets Java 17, so the Java 21 APIs are
+ * looked up at runtime.
+ */
+public final class VirtualThreads {
+
+  private VirtualThreads() {
+    throw new AssertionError();
+  }
+
+  /**
+   * Creates an executor which starts a new virtual thread for each task.
+   *
+   * @param namePrefix the prefix of the thread names, followed by a counter
+   * @return the executor, or {@code null} if virtual threads are not available
+   */
+  public static @Nullable ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+    try {
+      Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = builderType.getMethod("name", String.class, long.class)
+          .invoke(builder, namePrefix, 0L);
+      ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+      return (ExecutorService) Executors.class
+          .getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // Not available, or a preview feature on Java 19 and 20
+      return null;
+    }
+  }
+}
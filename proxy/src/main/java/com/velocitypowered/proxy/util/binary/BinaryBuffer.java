@@ -116,6 +116,10 @@ public final class BinaryBuffer {
         return writerOffset - readerOffset;
     }
 
+    public int writableBytes() {
+        return capacity - writerOffset;
+    }
+
     public void writeBytes(byte[] bytes) {
         this.nioBuffer.put(writerOffset, bytes);
         this.writerOffset += bytes.length;
@@ -161,13 +165,14 @@ public final class BinaryBuffer {
         return writeBuffer.limit() == writeBuffer.position();
     }
 
-    public void readChannel(ReadableByteChannel channel) throws IOException {
+    public int readChannel(ReadableByteChannel channel) throws IOException {
         final int count = channel.read(nioBuffer.slice(writerOffset, capacity - writerOffset));
         if (count == -1) {
             // EOS
             throw new IOException("Disconnected");
         }
         this.writerOffset += count;
+        return count;
     }
 
     @Override
@@ -0,0 +1,134 @@
+package com.velocitypowered.proxy.util.binary;
+
+import com.velocitypowered.proxy.util.ObjectPool;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * A growable byte queue made of pooled {@link BinaryBuffer}s.
+ * <p>
+ * Data is appended to the last buffer, taking a new one from the pool once it is full,
+ * and the whole chain is written to a socket using a single gathering write.
+ * Buffers are given back to the pool as soon as they are consumed.
+ * Not thread-safe.
+ */
+@ApiStatus.Internal
+public final class BinaryBufferChain {
+
+    private final ObjectPool<BinaryBuffer> pool;
+    private final ArrayDeque<BinaryBuffer> buffers = new ArrayDeque<>();
+    private ByteBuffer[] gatherBuffers = new ByteBuffer[4];
+    private int readableBytes;
+
+    public BinaryBufferChain(@NotNull ObjectPool<BinaryBuffer> pool) {
+        this.pool = pool;
+    }
+
+    public void write(@NotNull ByteBuffer buffer, int index, int length) {
+        this.readableBytes += length;
+        while (length > 0) {
+            BinaryBuffer tail = buffers.peekLast();
+            if (tail == null || tail.writableBytes() == 0) {
+                tail = pool.get();
+                this.buffers.addLast(tail);
+            }
+            final int sliceLength = Math.min(length, tail.writableBytes());
+            tail.write(buffer, index, sliceLength);
+            index += sliceLength;
+            length -= sliceLength;
+        }
+    }
+
+    public void write(@NotNull BinaryBuffer buffer) {
+        write(buffer.asByteBuffer(), buffer.readerOffset(), buffer.readableBytes());
+    }
+
+    /**
+     * Writes as much of the chain as the channel accepts, in a single call.
+     *
+     * @param channel the channel to write to
+     * @return the number of bytes written
+     * @throws IOException if the channel is closed
+     */
+    public long writeChannel(@NotNull GatheringByteChannel channel) throws IOException {
+        if (readableBytes == 0) return 0;
+        final int count = buffers.size();
+        ByteBuffer[] gather = this.gatherBuffers;
+        if (gather.length < count) gather = this.gatherBuffers = new ByteBuffer[Math.max(count, gather.length * 2)];
+        int i = 0;
+        for (BinaryBuffer buffer : buffers) {
+            gather[i++] = buffer.asByteBuffer(buffer.readerOffset(), buffer.readableBytes());
+        }
+        final long written = count == 1 ? channel.write(gather[0]) : channel.write(gather, 0, count);
+        Arrays.fill(gather, 0, count, null);
+        if (written == -1) {
+            // EOS
+            throw new IOException("Disconnected");
+        }
+        consume(written);
+        return written;
+    }
+
+    /**
+     * Moves the whole chain content into another buffer, which must have enough space for it.
+     *
+     * @param target the buffer to write to
+     */
+    public void transferTo(@NotNull BinaryBuffer target) {
+        for (BinaryBuffer buffer : buffers) {
+            target.write(buffer);
+        }
+        consume(readableBytes);
+    }
+
+    public int readableBytes() {
+        return readableBytes;
+    }
+
+    public boolean isEmpty() {
+        return readableBytes == 0;
+    }
+
+    /**
+     * Gives all the buffers back to the pool, discarding any remaining data.
+     */
+    public void release() {
+        BinaryBuffer buffer;
+        while ((buffer = buffers.pollFirst()) != null) {
+            this.pool.add(buffer);
+        }
+        this.readableBytes = 0;
+    }
+
+    private void consume(long length) {
+        this.readableBytes -= (int) length;
+        BinaryBuffer head;
+        while ((head = buffers.peekFirst()) != null) {
+            final int headLength = (int) Math.min(length, head.readableBytes());
+            head.readerOffset(head.readerOffset() + headLength);
+            length -= headLength;
+            if (head.readableBytes() != 0) break;
+            if (buffers.size() == 1) {
+                // Keep the last buffer around for the next writes
+                head.clear();
+                break;
+            }
+            this.buffers.pollFirst();
+            this.pool.add(head);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BinaryBufferChain{" +
+                "buffers=" + buffers.size() +
+                ", readableBytes=" + readableBytes +
+                '}';
+    }
+}
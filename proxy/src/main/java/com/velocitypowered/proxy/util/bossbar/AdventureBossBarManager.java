@@ -20,6 +20,7 @@ package com.velocitypowered.proxy.util.bossbar;
 import com.google.common.collect.MapMaker;
 import com.velocitypowered.api.network.ProtocolVersion;
 import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.protocol.PreparedPacket;
 import com.velocitypowered.proxy.protocol.ProtocolUtils;
 import com.velocitypowered.proxy.util.collect.Enum2IntMap;
 import com.velocitypowered.proxy.util.concurrent.Once;
@@ -142,9 +143,7 @@ public class AdventureBossBarManager implements BossBar.Listener {
     }
     com.velocitypowered.proxy.protocol.packet.BossBar packet = holder
         .createPercentUpdate(newPercent);
-    for (ConnectedPlayer player : holder.subscribers) {
-      player.getConnection().write(packet);
-    }
+    holder.broadcast(packet);
   }
 
   @Override
@@ -155,9 +154,7 @@ public class AdventureBossBarManager implements BossBar.Listener {
       return;
     }
     com.velocitypowered.proxy.protocol.packet.BossBar packet = holder.createColorUpdate(newColor);
-    for (ConnectedPlayer player : holder.subscribers) {
-      player.getConnection().write(packet);
-    }
+    holder.broadcast(packet);
   }
 
   @Override
@@ -169,9 +166,7 @@ public class AdventureBossBarManager implements BossBar.Listener {
     }
     com.velocitypowered.proxy.protocol.packet.BossBar packet = holder
         .createOverlayUpdate(newOverlay);
-    for (ConnectedPlayer player : holder.subscribers) {
-      player.getConnection().write(packet);
-    }
+    holder.broadcast(packet);
   }
 
   @Override
@@ -182,9 +177,7 @@ public class AdventureBossBarManager implements BossBar.Listener {
       return;
     }
     com.velocitypowered.proxy.protocol.packet.BossBar packet = holder.createFlagsUpdate();
-    for (ConnectedPlayer player : holder.subscribers) {
-      player.getConnection().write(packet);
-    }
+    holder.broadcast(packet);
   }
 
   private class BossBarHolder {
@@ -199,6 +192,19 @@ public class AdventureBossBarManager implements BossBar.Listener {
       this.bar = bar;
     }
 
+    /**
+     * Sends the same packet to all the subscribers, encoding it once per protocol version.
+     *
+     * @param packet the packet to send
+     */
+    void broadcast(com.velocitypowered.proxy.protocol.packet.BossBar packet) {
+      try (PreparedPacket prepared = new PreparedPacket(packet)) {
+        for (ConnectedPlayer player : subscribers) {
+          player.getConnection().write(prepared);
+        }
+      }
+    }
+
     void register() {
       registrationOnce.run(() -> this.bar.addListener(AdventureBossBarManager.this));
     }
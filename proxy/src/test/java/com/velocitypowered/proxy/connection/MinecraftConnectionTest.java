@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.velocitypowered.proxy.VelocityServer;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks how writes to a connection are flushed.
+ */
+class MinecraftConnectionTest {
+
+  private final AtomicInteger flushes = new AtomicInteger();
+  private EmbeddedChannel channel;
+  private MinecraftConnection connection;
+
+  @BeforeEach
+  void setUp() {
+    channel = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+      @Override
+      public void flush(ChannelHandlerContext ctx) throws Exception {
+        flushes.incrementAndGet();
+        super.flush(ctx);
+      }
+    });
+    connection = new MinecraftConnection(channel, mock(VelocityServer.class));
+  }
+
+  @AfterEach
+  void tearDown() {
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  void writesShareOneFlush() {
+    connection.write("first");
+    connection.write("second");
+    connection.write("third");
+    assertEquals(0, flushes.get());
+    assertTrue(channel.outboundMessages().isEmpty());
+
+    channel.runPendingTasks();
+    assertEquals(1, flushes.get());
+    assertEquals(3, channel.outboundMessages().size());
+    assertEquals(1, connection.getFlushCount());
+    assertEquals(3, connection.getFlushedPacketCount());
+  }
+
+  @Test
+  void urgentWriteFlushesPendingWrites() {
+    connection.write("first");
+    connection.write("second");
+    connection.writeUrgent("keep-alive");
+    assertEquals(1, flushes.get());
+    assertEquals(3, channel.outboundMessages().size());
+    assertEquals("keep-alive", channel.outboundMessages().toArray()[2]);
+
+    // The consolidated flush has nothing left to send.
+    channel.runPendingTasks();
+    assertEquals(1, connection.getFlushCount());
+    assertEquals(3, connection.getFlushedPacketCount());
+  }
+
+  @Test
+  void maxPendingPacketsForcesFlush() {
+    for (int i = 1; i < MinecraftConnection.FLUSH_CONSOLIDATION_MAX_PACKETS; i++) {
+      connection.write("packet " + i);
+    }
+    assertEquals(0, flushes.get());
+
+    connection.write("last");
+    assertEquals(1, flushes.get());
+    assertEquals(MinecraftConnection.FLUSH_CONSOLIDATION_MAX_PACKETS,
+        channel.outboundMessages().size());
+  }
+
+  @Test
+  void writesFromAnotherThreadAreAllFlushed() throws Exception {
+    EventLoopGroup group = new DefaultEventLoopGroup(1);
+    CountDownLatch received = new CountDownLatch(3);
+    try {
+      LocalAddress address = new LocalAddress(MinecraftConnectionTest.class);
+      Channel server = new ServerBootstrap()
+          .group(group)
+          .channel(LocalServerChannel.class)
+          .childHandler(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+              received.countDown();
+            }
+          })
+          .bind(address).sync().channel();
+      Channel client = new Bootstrap()
+          .group(group)
+          .channel(LocalChannel.class)
+          .handler(new ChannelInboundHandlerAdapter())
+          .connect(address).sync().channel();
+      MinecraftConnection connection = new MinecraftConnection(client,
+          mock(VelocityServer.class));
+
+      // Hold the event loop so that all the writes are queued before the first flush runs.
+      CountDownLatch blocked = new CountDownLatch(1);
+      client.eventLoop().execute(() -> {
+        try {
+          blocked.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      connection.write("first");
+      connection.write("second");
+      connection.write("third");
+      blocked.countDown();
+
+      assertTrue(received.await(5, TimeUnit.SECONDS));
+      client.close().sync();
+      server.close().sync();
+    } finally {
+      group.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+    }
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.connection.backend;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.api.proxy.crypto.IdentifiedKey;
+import com.velocitypowered.api.util.GameProfile;
+import com.velocitypowered.proxy.connection.VelocityConstants;
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.UUID;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.Test;
+
+class LoginSessionHandlerTest {
+
+  private static final String ADDRESS = "127.0.0.1";
+  private static final GameProfile PROFILE = new GameProfile(
+      UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5"), "Notch",
+      ImmutableList.of(new GameProfile.Property("textures", "value", "signature")));
+
+  @Test
+  void defaultForwardingMatchesSingleBufferEncoding() throws Exception {
+    ConnectedPlayer player = player(ProtocolVersion.MINECRAFT_1_19_4, null);
+    byte[] secret = "secret".getBytes(StandardCharsets.UTF_8);
+
+    // The second call reuses the body cached by the player.
+    for (int i = 0; i < 2; i++) {
+      assertForwardingData(secret, player, VelocityConstants.MODERN_FORWARDING_DEFAULT,
+          VelocityConstants.MODERN_FORWARDING_DEFAULT);
+    }
+  }
+
+  @Test
+  void keyedForwardingMatchesSingleBufferEncoding() throws Exception {
+    PublicKey publicKey = mock(PublicKey.class);
+    when(publicKey.getEncoded()).thenReturn(new byte[] {1, 2, 3, 4});
+    IdentifiedKey key = mock(IdentifiedKey.class);
+    when(key.getKeyRevision()).thenReturn(IdentifiedKey.Revision.LINKED_V2);
+    when(key.getExpiryTemporal()).thenReturn(Instant.ofEpochMilli(1_700_000_000_000L));
+    when(key.getSignedPublicKey()).thenReturn(publicKey);
+    when(key.getSignature()).thenReturn(new byte[] {5, 6, 7});
+    when(key.getSignatureHolder()).thenReturn(PROFILE.getId());
+    ConnectedPlayer player = player(ProtocolVersion.MINECRAFT_1_19_1, key);
+    byte[] secret = "secret".getBytes(StandardCharsets.UTF_8);
+
+    for (int i = 0; i < 2; i++) {
+      assertForwardingData(secret, player, VelocityConstants.MODERN_FORWARDING_WITH_KEY_V2,
+          VelocityConstants.MODERN_FORWARDING_WITH_KEY_V2);
+    }
+    // A lower requested version changes the body, which must not be served from the cache.
+    assertForwardingData(secret, player, VelocityConstants.MODERN_FORWARDING_DEFAULT,
+        VelocityConstants.MODERN_FORWARDING_DEFAULT);
+  }
+
+  @Test
+  void secretChangeRekeysMac() throws Exception {
+    ConnectedPlayer player = player(ProtocolVersion.MINECRAFT_1_19_4, null);
+    byte[] secret = "first".getBytes(StandardCharsets.UTF_8);
+    assertForwardingData(secret, player, VelocityConstants.MODERN_FORWARDING_DEFAULT,
+        VelocityConstants.MODERN_FORWARDING_DEFAULT);
+
+    assertForwardingData("second".getBytes(StandardCharsets.UTF_8), player,
+        VelocityConstants.MODERN_FORWARDING_DEFAULT, VelocityConstants.MODERN_FORWARDING_DEFAULT);
+
+    // The secret is compared by content, so changing the array in place re-keys it as well.
+    secret[0] = 'F';
+    assertForwardingData(secret, player, VelocityConstants.MODERN_FORWARDING_DEFAULT,
+        VelocityConstants.MODERN_FORWARDING_DEFAULT);
+  }
+
+  private static ConnectedPlayer player(ProtocolVersion version, IdentifiedKey key) {
+    ConnectedPlayer player = mock(ConnectedPlayer.class);
+    when(player.getProtocolVersion()).thenReturn(version);
+    when(player.getGameProfile()).thenReturn(PROFILE);
+    when(player.getIdentifiedKey()).thenReturn(key);
+    doCallRealMethod().when(player).getForwardingBody();
+    doCallRealMethod().when(player).setForwardingBody(any());
+    return player;
+  }
+
+  private static void assertForwardingData(byte[] secret, ConnectedPlayer player,
+      int requestedVersion, int actualVersion) throws Exception {
+    ByteBuf expected = singleBufferForwardingData(secret, player, actualVersion);
+    ByteBuf actual = LoginSessionHandler.createForwardingData(secret, ADDRESS, player,
+        requestedVersion);
+    try {
+      assertArrayEquals(ByteBufUtil.getBytes(expected), ByteBufUtil.getBytes(actual));
+    } finally {
+      expected.release();
+      actual.release();
+    }
+  }
+
+  // The encoding used before the forwarding body was cached.
+  private static ByteBuf singleBufferForwardingData(byte[] hmacSecret, ConnectedPlayer player,
+      int actualVersion) throws Exception {
+    ByteBuf forwarded = Unpooled.buffer(2048);
+    ProtocolUtils.writeVarInt(forwarded, actualVersion);
+    ProtocolUtils.writeString(forwarded, ADDRESS);
+    ProtocolUtils.writeUuid(forwarded, player.getGameProfile().getId());
+    ProtocolUtils.writeString(forwarded, player.getGameProfile().getName());
+    ProtocolUtils.writeProperties(forwarded, player.getGameProfile().getProperties());
+
+    if (actualVersion >= VelocityConstants.MODERN_FORWARDING_WITH_KEY
+        && actualVersion < VelocityConstants.MODERN_LAZY_SESSION) {
+      IdentifiedKey key = player.getIdentifiedKey();
+      ProtocolUtils.writePlayerKey(forwarded, key);
+      if (actualVersion >= VelocityConstants.MODERN_FORWARDING_WITH_KEY_V2) {
+        if (key.getSignatureHolder() != null) {
+          forwarded.writeBoolean(true);
+          ProtocolUtils.writeUuid(forwarded, key.getSignatureHolder());
+        } else {
+          forwarded.writeBoolean(false);
+        }
+      }
+    }
+
+    Mac mac = Mac.getInstance("HmacSHA256");
+    mac.init(new SecretKeySpec(hmacSecret, "HmacSHA256"));
+    mac.update(forwarded.array(), forwarded.arrayOffset(), forwarded.readableBytes());
+    byte[] sig = mac.doFinal();
+    return Unpooled.wrappedBuffer(Unpooled.wrappedBuffer(sig), forwarded);
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.connection.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.Dsl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the session server client against a local stub of the session server.
+ */
+class MojangSessionServiceTest {
+
+  private static final String PROFILE = "{\"id\":\"069a79f444e94726a5befca90e38aaf5\","
+      + "\"name\":\"Notch\",\"properties\":[]}";
+
+  private final AtomicInteger requests = new AtomicInteger();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private HttpServer stub;
+  private AsyncHttpClient httpClient;
+
+  @BeforeEach
+  void startStub() throws IOException {
+    stub = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    stub.setExecutor(Executors.newCachedThreadPool());
+    stub.createContext("/hasJoined", exchange -> {
+      requests.incrementAndGet();
+      String query = exchange.getRequestURI().getQuery();
+      try {
+        if (query.contains("username=Slow")) {
+          release.await(10, TimeUnit.SECONDS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (query.contains("username=Notch") || query.contains("username=Slow")) {
+        byte[] body = PROFILE.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(body);
+        }
+      } else {
+        exchange.sendResponseHeaders(204, -1);
+        exchange.close();
+      }
+    });
+    stub.start();
+    httpClient = Dsl.asyncHttpClient();
+  }
+
+  @AfterEach
+  void stopStub() throws IOException {
+    release.countDown();
+    httpClient.close();
+    stub.stop(0);
+  }
+
+  private MojangSessionService service(int maxInFlight, int maxQueued) {
+    return service(maxInFlight, maxQueued, 10_000);
+  }
+
+  private MojangSessionService service(int maxInFlight, int maxQueued, long deadlineMillis) {
+    String url = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+        + stub.getAddress().getPort() + "/hasJoined";
+    return new MojangSessionService(() -> httpClient, url, maxInFlight, maxQueued,
+        deadlineMillis, 30);
+  }
+
+  @Test
+  void verifiedProfileIsCached() throws Exception {
+    MojangSessionService service = service(4, 16);
+    MojangSessionService.Result first = service.hasJoined("Notch", "abc", "127.0.0.1").get();
+    assertEquals(200, first.statusCode());
+    assertNotNull(first.profile());
+    assertEquals("Notch", first.profile().getName());
+
+    MojangSessionService.Result second = service.hasJoined("Notch", "abc", "127.0.0.1").get();
+    assertSame(first.profile(), second.profile());
+    assertEquals(1, requests.get());
+
+    // A different server ID is a different login.
+    service.hasJoined("Notch", "def", "127.0.0.1").get();
+    assertEquals(2, requests.get());
+  }
+
+  @Test
+  void notJoinedIsNotCached() throws Exception {
+    MojangSessionService service = service(4, 16);
+    MojangSessionService.Result result = service.hasJoined("Offline", "abc", null).get();
+    assertEquals(204, result.statusCode());
+    assertNull(result.profile());
+    service.hasJoined("Offline", "abc", null).get();
+    assertEquals(2, requests.get());
+  }
+
+  @Test
+  void concurrentRequestsAreCoalesced() throws Exception {
+    MojangSessionService service = service(4, 16);
+    CompletableFuture<MojangSessionService.Result> first = service.hasJoined("Slow", "abc", null);
+    CompletableFuture<MojangSessionService.Result> second = service.hasJoined("Slow", "abc", null);
+    assertSame(first, second);
+    release.countDown();
+    assertEquals(200, first.get().statusCode());
+    assertEquals(1, requests.get());
+  }
+
+  @Test
+  void requestsBeyondTheQueueAreShed() throws Exception {
+    MojangSessionService service = service(1, 1);
+    CompletableFuture<MojangSessionService.Result> inFlight = service.hasJoined("Slow", "a", null);
+    CompletableFuture<MojangSessionService.Result> queued = service.hasJoined("Slow", "b", null);
+    CompletableFuture<MojangSessionService.Result> shed = service.hasJoined("Slow", "c", null);
+
+    ExecutionException e = assertThrows(ExecutionException.class, shed::get);
+    assertSame(MojangSessionService.QUEUE_FULL, e.getCause());
+
+    release.countDown();
+    assertEquals(200, inFlight.get().statusCode());
+    assertEquals(200, queued.get().statusCode());
+    assertEquals(2, requests.get());
+  }
+
+  @Test
+  void queuedRequestsFailAtTheDeadline() throws Exception {
+    MojangSessionService service = service(1, 16, 200);
+    CompletableFuture<MojangSessionService.Result> inFlight = service.hasJoined("Slow", "a", null);
+    CompletableFuture<MojangSessionService.Result> queued = service.hasJoined("Slow", "b", null);
+
+    // The request in flight hangs, the queued one must still be failed on time.
+    ExecutionException e = assertThrows(ExecutionException.class,
+        () -> queued.get(5, TimeUnit.SECONDS));
+    assertSame(MojangSessionService.DEADLINE_EXCEEDED, e.getCause());
+    assertFalse(inFlight.isDone());
+
+    release.countDown();
+    assertEquals(200, inFlight.get().statusCode());
+    assertEquals(1, requests.get());
+    assertEquals(1, service.getStatistics().get("shed").getAsInt());
+  }
+}
@@ -18,7 +18,9 @@
 package com.velocitypowered.proxy.event;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import com.google.common.reflect.TypeToken;
 import com.velocitypowered.api.event.AwaitingEventExecutor;
@@ -27,6 +29,10 @@ import com.velocitypowered.api.event.EventTask;
 import com.velocitypowered.api.event.PostOrder;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.proxy.testutil.FakePluginManager;
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.EventLoop;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
@@ -53,6 +59,10 @@ public class EventTest {
 
   }
 
+  static final class NestedEvent {
+
+  }
+
   static void assertAsyncThread(final Thread thread) {
     assertTrue(thread.getName().contains("Velocity Async Event Executor"));
   }
@@ -162,6 +172,130 @@ public class EventTest {
     }
   }
 
+  @Test
+  void testEventLoopAffinity() throws Exception {
+    final EventLoop eventLoop = new DefaultEventLoop();
+    final Thread eventLoopThread = eventLoop.submit(Thread::currentThread).get();
+    final EventLoopListener listener = new EventLoopListener();
+    eventManager.register(FakePluginManager.PLUGIN_A, listener);
+    try {
+      eventManager.fire(new TestEvent(), eventLoop).get();
+    } finally {
+      eventManager.unregisterListeners(FakePluginManager.PLUGIN_A);
+      eventLoop.shutdownGracefully();
+    }
+    assertSame(eventLoopThread, listener.threadA);
+    assertAsyncThread(listener.threadB);
+    assertAsyncThread(listener.threadC);
+    assertEquals(3, listener.result);
+  }
+
+  @Test
+  void testEventLoopAffinityWithAsyncHandler() throws Exception {
+    final EventLoop eventLoop = new DefaultEventLoop();
+    final AlwaysAsyncListener listener = new AlwaysAsyncListener();
+    eventManager.register(FakePluginManager.PLUGIN_A, listener);
+    try {
+      eventManager.fire(new TestEvent(), eventLoop).get();
+    } finally {
+      eventManager.unregisterListeners(FakePluginManager.PLUGIN_A);
+      eventLoop.shutdownGracefully();
+    }
+    assertAsyncThread(listener.threadA);
+    assertAsyncThread(listener.threadB);
+    assertAsyncThread(listener.threadC);
+    assertEquals(3, listener.result);
+  }
+
+  @Test
+  void testPluginConcurrencyLimit() throws Exception {
+    assertPluginConcurrencyLimited(new VelocityEventManager(new FakePluginManager(), false, 1));
+  }
+
+  @Test
+  void testPluginConcurrencyLimitWithVirtualThreads() throws Exception {
+    final VelocityEventManager limitedManager =
+        new VelocityEventManager(new FakePluginManager(), true, 1);
+    if (!limitedManager.getStatistics().get("executor").getAsString().equals("virtual")) {
+      limitedManager.shutdown();
+      assumeTrue(false, "Virtual threads are not available");
+    }
+    assertPluginConcurrencyLimited(limitedManager);
+  }
+
+  @Test
+  void testNestedEventIgnoresPluginConcurrencyLimit() throws Exception {
+    // The nested handler runs on another pooled thread while the first one waits for it
+    assumeTrue(Runtime.getRuntime().availableProcessors() > 1, "Needs two pooled threads");
+    final VelocityEventManager limitedManager =
+        new VelocityEventManager(new FakePluginManager(), false, 1);
+    try {
+      limitedManager.register(FakePluginManager.PLUGIN_A, TestEvent.class,
+          event -> limitedManager.fire(new NestedEvent()).join());
+      final AtomicInteger nested = new AtomicInteger();
+      limitedManager.register(FakePluginManager.PLUGIN_A, NestedEvent.class,
+          event -> nested.incrementAndGet());
+      limitedManager.fire(new TestEvent()).get(5, TimeUnit.SECONDS);
+      assertEquals(1, nested.get());
+    } finally {
+      limitedManager.shutdown();
+    }
+  }
+
+  private static void assertPluginConcurrencyLimited(final VelocityEventManager limitedManager)
+      throws Exception {
+    try {
+      assertEquals(1, limitedManager.getStatistics().get("pluginConcurrency").getAsInt());
+      final AtomicInteger running = new AtomicInteger();
+      final AtomicInteger maxRunning = new AtomicInteger();
+      limitedManager.register(FakePluginManager.PLUGIN_A, TestEvent.class, event -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+          Thread.sleep(20);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        running.decrementAndGet();
+      });
+      CompletableFuture.allOf(
+          limitedManager.fire(new TestEvent()),
+          limitedManager.fire(new TestEvent()),
+          limitedManager.fire(new TestEvent()),
+          limitedManager.fire(new TestEvent())).get();
+      assertEquals(1, maxRunning.get());
+    } finally {
+      limitedManager.shutdown();
+    }
+  }
+
+  static final class EventLoopListener {
+
+    @MonotonicNonNull Thread threadA;
+    @MonotonicNonNull Thread threadB;
+    @MonotonicNonNull Thread threadC;
+    int result;
+
+    @Subscribe(order = PostOrder.EARLY, async = false)
+    void first(TestEvent event) {
+      result++;
+      threadA = Thread.currentThread();
+    }
+
+    @Subscribe(async = false)
+    EventTask second(TestEvent event) {
+      return EventTask.async(() -> {
+        threadB = Thread.currentThread();
+        result++;
+      });
+    }
+
+    @Subscribe(order = PostOrder.LATE, async = false)
+    void third(TestEvent event) {
+      result++;
+      threadC = Thread.currentThread();
+    }
+  }
+
   @Test
   void testContinuation() throws Exception {
     final ContinuationListener listener = new ContinuationListener();
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.JsonObject;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class PinnedThreadMonitorTest {
+
+  @Test
+  void monitorStartsAndReportsNoPins() {
+    // JFR streaming is available on every supported Java version, the pinned event only exists
+    // from Java 21 onwards and is then simply never recorded.
+    PinnedThreadMonitor monitor = PinnedThreadMonitor.start(Duration.ofMillis(20));
+    assertNotNull(monitor);
+    try {
+      JsonObject statistics = monitor.getStatistics();
+      assertEquals(0, statistics.get("count").getAsLong());
+      assertTrue(statistics.getAsJsonObject("locations").entrySet().isEmpty());
+    } finally {
+      monitor.close();
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2021-2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.natives.util.Natives;
+import com.velocitypowered.proxy.protocol.netty.MinecraftCompressorAndLengthEncoder;
+import com.velocitypowered.proxy.protocol.netty.MinecraftEncoder;
+import com.velocitypowered.proxy.protocol.netty.MinecraftVarintLengthEncoder;
+import com.velocitypowered.proxy.protocol.netty.PreparedFrame;
+import com.velocitypowered.proxy.protocol.packet.BossBar;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that prepared packets are framed exactly like the pipeline would frame them.
+ */
+public class PreparedPacketTest {
+
+  private static final ProtocolVersion VERSION = ProtocolVersion.MAXIMUM_VERSION;
+
+  private static final int THRESHOLD = 256;
+
+  @Test
+  void uncompressedFrameMatchesPipeline() {
+    assertFrameMatchesPipeline(BossBar.createRemovePacket(UUID.randomUUID()), -1,
+        MinecraftVarintLengthEncoder.INSTANCE).release();
+  }
+
+  @Test
+  void compressedFrameMatchesPipeline() {
+    assertFrameMatchesPipeline(BossBar.createRemovePacket(UUID.randomUUID()), THRESHOLD,
+        new MinecraftCompressorAndLengthEncoder(THRESHOLD, Natives.compress.get().create(6)))
+        .release();
+  }
+
+  @Test
+  void deflatedFrameMatchesPipeline() {
+    // Large enough to go over the compression threshold
+    BossBar packet = new BossBar();
+    packet.setUuid(UUID.randomUUID());
+    packet.setAction(BossBar.UPDATE_NAME);
+    packet.setName("{\"text\":\"" + "Boss bar title ".repeat(40) + "\"}");
+    ByteBuf expected = assertFrameMatchesPipeline(packet, THRESHOLD,
+        new MinecraftCompressorAndLengthEncoder(THRESHOLD, Natives.compress.get().create(6)));
+    try {
+      ProtocolUtils.readVarInt(expected);
+      assertTrue(ProtocolUtils.readVarInt(expected) >= THRESHOLD, "Packet was not compressed");
+    } finally {
+      expected.release();
+    }
+  }
+
+  /**
+   * Checks that the prepared frame of a packet matches the pipeline output.
+   *
+   * @return the frame written by the pipeline, to be released by the caller
+   */
+  private static ByteBuf assertFrameMatchesPipeline(MinecraftPacket packet, int threshold,
+      ChannelHandler lengthEncoder) {
+    MinecraftEncoder encoder = new MinecraftEncoder(ProtocolUtils.Direction.CLIENTBOUND);
+    encoder.setState(StateRegistry.PLAY);
+    encoder.setProtocolVersion(VERSION);
+    EmbeddedChannel channel = new EmbeddedChannel(lengthEncoder, encoder);
+    assertTrue(channel.writeOutbound(packet));
+    ByteBuf expected = channel.readOutbound();
+
+    try (PreparedPacket prepared = new PreparedPacket(packet)) {
+      PreparedFrame frame = prepared.frame(VERSION, threshold, ByteBufAllocator.DEFAULT, 6);
+      try {
+        assertTrue(frame.content().isReadOnly());
+        assertEquals(expected, frame.content());
+      } finally {
+        frame.release();
+      }
+
+      // The frame is passed through as-is by the length encoder.
+      assertTrue(channel.writeOutbound(prepared.frame(VERSION, threshold,
+          ByteBufAllocator.DEFAULT, 6)));
+      ByteBuf written = channel.readOutbound();
+      try {
+        assertEquals(expected, written);
+      } finally {
+        written.release();
+      }
+    } finally {
+      channel.finishAndReleaseAll();
+    }
+    return expected;
+  }
+}
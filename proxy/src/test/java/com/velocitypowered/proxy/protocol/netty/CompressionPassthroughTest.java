@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.velocitypowered.natives.compression.JavaVelocityCompressor;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.Random;
+import java.util.zip.Deflater;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that compressed frames are handed over and written without being recompressed.
+ */
+public class CompressionPassthroughTest {
+
+  private static final int THRESHOLD = 256;
+  // Takes two bytes as a VarInt, so that the peeked ID spans several inflated bytes.
+  private static final int PACKET_ID = 0x1A2;
+
+  @Test
+  void passthroughFrameKeepsPacketId() {
+    ByteBuf packet = createPacket(1024);
+    ByteBuf frame = compress(packet);
+    EmbeddedChannel channel = new EmbeddedChannel(new MinecraftCompressDecoder(THRESHOLD,
+        JavaVelocityCompressor.FACTORY.create(Deflater.DEFAULT_COMPRESSION)));
+    ((MinecraftCompressDecoder) channel.pipeline().first()).setPassthroughFilter(id -> false);
+    try {
+      assertTrue(channel.writeInbound(frame.retainedDuplicate()));
+      CompressedFrame decoded = assertInstanceOf(CompressedFrame.class, channel.readInbound());
+      try {
+        assertEquals(PACKET_ID, decoded.getPacketId());
+        assertEquals(packet.readableBytes(), decoded.getUncompressedSize());
+        assertEquals(frame, decoded.content());
+      } finally {
+        decoded.release();
+      }
+    } finally {
+      packet.release();
+      frame.release();
+      channel.finishAndReleaseAll();
+    }
+  }
+
+  @Test
+  void filteredFrameIsInflated() {
+    ByteBuf packet = createPacket(1024);
+    EmbeddedChannel channel = new EmbeddedChannel(new MinecraftCompressDecoder(THRESHOLD,
+        JavaVelocityCompressor.FACTORY.create(Deflater.DEFAULT_COMPRESSION)));
+    ((MinecraftCompressDecoder) channel.pipeline().first())
+        .setPassthroughFilter(id -> id == PACKET_ID);
+    try {
+      assertTrue(channel.writeInbound(compress(packet)));
+      ByteBuf decoded = channel.readInbound();
+      try {
+        assertEquals(packet, decoded);
+      } finally {
+        decoded.release();
+      }
+    } finally {
+      packet.release();
+      channel.finishAndReleaseAll();
+    }
+  }
+
+  @Test
+  void passthroughFrameIsWrittenAsIs() {
+    ByteBuf packet = createPacket(1024);
+    ByteBuf frame = compress(packet);
+    EmbeddedChannel channel = new EmbeddedChannel(new MinecraftCompressorAndLengthEncoder(
+        THRESHOLD, JavaVelocityCompressor.FACTORY.create(Deflater.DEFAULT_COMPRESSION)));
+    try {
+      assertTrue(channel.writeOutbound(new CompressedFrame(PACKET_ID, packet.readableBytes(),
+          frame.retainedDuplicate())));
+      ByteBuf written = channel.readOutbound();
+      try {
+        assertEquals(frame.readableBytes(), ProtocolUtils.readVarInt(written));
+        assertEquals(frame, written);
+      } finally {
+        written.release();
+      }
+    } finally {
+      packet.release();
+      frame.release();
+      channel.finishAndReleaseAll();
+    }
+  }
+
+  @Test
+  void passthroughFrameUnderThresholdIsInflated() {
+    ByteBuf packet = createPacket(1024);
+    EmbeddedChannel channel = new EmbeddedChannel(new MinecraftCompressorAndLengthEncoder(
+        4096, JavaVelocityCompressor.FACTORY.create(Deflater.DEFAULT_COMPRESSION)));
+    try {
+      assertTrue(channel.writeOutbound(new CompressedFrame(PACKET_ID, packet.readableBytes(),
+          compress(packet))));
+      ByteBuf written = channel.readOutbound();
+      try {
+        assertEquals(packet.readableBytes() + 1, ProtocolUtils.readVarInt(written));
+        assertEquals(0, ProtocolUtils.readVarInt(written));
+        assertEquals(packet, written);
+      } finally {
+        written.release();
+      }
+    } finally {
+      packet.release();
+      channel.finishAndReleaseAll();
+    }
+  }
+
+  private static ByteBuf createPacket(int bodyLength) {
+    byte[] body = new byte[bodyLength];
+    new Random(1).nextBytes(body);
+    ByteBuf packet = Unpooled.buffer();
+    ProtocolUtils.writeVarInt(packet, PACKET_ID);
+    packet.writeBytes(body);
+    return packet;
+  }
+
+  /**
+   * Compresses a packet the way a backend server would, without the packet length.
+   */
+  private static ByteBuf compress(ByteBuf packet) {
+    byte[] uncompressed = new byte[packet.readableBytes()];
+    packet.getBytes(packet.readerIndex(), uncompressed);
+    Deflater deflater = new Deflater();
+    byte[] compressed = new byte[uncompressed.length + 64];
+    int length;
+    try {
+      deflater.setInput(uncompressed);
+      deflater.finish();
+      length = deflater.deflate(compressed);
+    } finally {
+      deflater.end();
+    }
+    ByteBuf frame = Unpooled.buffer();
+    ProtocolUtils.writeVarInt(frame, uncompressed.length);
+    frame.writeBytes(compressed, 0, length);
+    return frame;
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.packet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+class JoinGameTest {
+
+  @Test
+  void legacyPacketHasNoRegistry() {
+    ByteBuf buf = Unpooled.buffer();
+    buf.writeInt(42); // entity ID
+    buf.writeByte(1); // game mode
+    buf.writeInt(0); // dimension
+    buf.writeLong(0); // hashed seed
+    buf.writeByte(20); // max players
+    ProtocolUtils.writeString(buf, "default");
+    ProtocolUtils.writeVarInt(buf, 10); // view distance
+    buf.writeBoolean(false); // reduced debug info
+    buf.writeBoolean(true); // show respawn screen
+
+    JoinGame packet = new JoinGame();
+    try {
+      packet.decode(buf, ProtocolUtils.Direction.CLIENTBOUND, ProtocolVersion.MINECRAFT_1_15_2);
+    } finally {
+      buf.release();
+    }
+    assertEquals(42, packet.getEntityId());
+    assertNull(packet.getEncodedRegistry());
+    assertNull(packet.getRegistry());
+  }
+}
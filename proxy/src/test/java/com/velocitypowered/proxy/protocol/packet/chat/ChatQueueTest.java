@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.packet.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.velocitypowered.proxy.connection.MinecraftConnection;
+import com.velocitypowered.proxy.connection.backend.VelocityServerConnection;
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import io.netty.channel.EventLoop;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+class ChatQueueTest {
+
+  private static final Instant FIRST = Instant.ofEpochSecond(1);
+  private static final Instant SECOND = Instant.ofEpochSecond(2);
+
+  private MinecraftConnection connection;
+  private ChatQueue queue;
+
+  @BeforeEach
+  void setUp() {
+    // Everything runs on the test thread, which stands in for the player's event loop.
+    EventLoop eventLoop = mock(EventLoop.class);
+    when(eventLoop.inEventLoop()).thenReturn(true);
+    connection = mock(MinecraftConnection.class);
+    when(connection.eventLoop()).thenReturn(eventLoop);
+    VelocityServerConnection serverConnection = mock(VelocityServerConnection.class);
+    when(serverConnection.ensureConnected()).thenReturn(connection);
+    ConnectedPlayer player = mock(ConnectedPlayer.class);
+    when(player.getConnection()).thenReturn(connection);
+    when(player.ensureAndGetCurrentServer()).thenReturn(serverConnection);
+    queue = new ChatQueue(player);
+  }
+
+  @Test
+  void packetsAreWrittenInQueueOrder() {
+    MinecraftPacket first = mock(MinecraftPacket.class);
+    MinecraftPacket second = mock(MinecraftPacket.class);
+    CompletableFuture<MinecraftPacket> firstFuture = new CompletableFuture<>();
+    CompletableFuture<MinecraftPacket> secondFuture = new CompletableFuture<>();
+    queue.queuePacket(firstFuture, FIRST);
+    queue.queuePacket(secondFuture, SECOND);
+
+    secondFuture.complete(second);
+    verify(connection, never()).write(any());
+
+    firstFuture.complete(first);
+    InOrder order = inOrder(connection);
+    order.verify(connection).write(first);
+    order.verify(connection).write(second);
+  }
+
+  @Test
+  void hijackedPacketInheritsTimestampOfPendingPacket() {
+    MinecraftPacket first = mock(MinecraftPacket.class);
+    MinecraftPacket hijacked = mock(MinecraftPacket.class);
+    List<Instant> mappedTimestamps = new ArrayList<>();
+    CompletableFuture<MinecraftPacket> firstFuture = new CompletableFuture<>();
+    queue.queuePacket(firstFuture, FIRST);
+    queue.hijack("message", (timestamp, message) -> {
+      mappedTimestamps.add(timestamp);
+      return hijacked;
+    });
+    verify(connection, never()).write(any());
+
+    firstFuture.complete(first);
+    assertEquals(List.of(FIRST), mappedTimestamps);
+    InOrder order = inOrder(connection);
+    order.verify(connection).write(first);
+    order.verify(connection).write(hijacked);
+  }
+
+  @Test
+  void failedPacketAdvancesQueue() {
+    MinecraftPacket second = mock(MinecraftPacket.class);
+    CompletableFuture<MinecraftPacket> firstFuture = new CompletableFuture<>();
+    queue.queuePacket(firstFuture, FIRST);
+    queue.queuePacket(CompletableFuture.completedFuture(second), SECOND);
+    verify(connection, never()).write(any());
+
+    firstFuture.completeExceptionally(new IllegalStateException("Cancelled by a plugin"));
+    verify(connection).write(second);
+  }
+
+  @Test
+  void failedMapperDoesNotStallQueue() {
+    MinecraftPacket first = mock(MinecraftPacket.class);
+    MinecraftPacket second = mock(MinecraftPacket.class);
+    CompletableFuture<MinecraftPacket> firstFuture = new CompletableFuture<>();
+    queue.queuePacket(firstFuture, FIRST);
+    queue.hijack("message", (timestamp, message) -> {
+      throw new IllegalStateException("Broken mapper");
+    });
+    queue.queuePacket(CompletableFuture.completedFuture(second), SECOND);
+
+    firstFuture.complete(first);
+    InOrder order = inOrder(connection);
+    order.verify(connection).write(first);
+    order.verify(connection).write(second);
+  }
+}
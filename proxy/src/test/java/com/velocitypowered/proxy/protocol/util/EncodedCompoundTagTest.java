@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2019-2021 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import java.util.List;
+import net.kyori.adventure.nbt.BinaryTagIO;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import net.kyori.adventure.nbt.ListBinaryTag;
+import net.kyori.adventure.nbt.StringBinaryTag;
+import org.junit.jupiter.api.Test;
+
+class EncodedCompoundTagTest {
+
+  private static final BinaryTagIO.Reader READER = BinaryTagIO.reader(1024 * 1024);
+
+  private static CompoundBinaryTag registry(String biome) {
+    return CompoundBinaryTag.builder()
+        .put("minecraft:worldgen/biome", CompoundBinaryTag.builder()
+            .putString("type", "minecraft:worldgen/biome")
+            .put("value", ListBinaryTag.from(List.of(
+                StringBinaryTag.of(biome), StringBinaryTag.of("minecraft:plains"))))
+            .putIntArray("ids", new int[] {1, 2, 3})
+            .putLongArray("seeds", new long[] {4L, 5L})
+            .putByteArray("flags", new byte[] {6, 7})
+            .putDouble("temperature", 0.8)
+            .build())
+        .build();
+  }
+
+  private static ByteBuf encode(CompoundBinaryTag tag) {
+    ByteBuf buf = Unpooled.buffer();
+    ProtocolUtils.writeCompoundTag(buf, tag);
+    buf.writeInt(0xCAFE); // trailing packet data
+    return buf;
+  }
+
+  @Test
+  void readsExactlyTheTagAndPreservesItsBytes() {
+    ByteBuf buf = encode(registry("minecraft:desert"));
+    int length = buf.readableBytes() - Integer.BYTES;
+    byte[] expected = ByteBufUtil.getBytes(buf, 0, length);
+
+    EncodedCompoundTag tag = EncodedCompoundTag.read(buf, READER, length);
+    assertEquals(0xCAFE, buf.readInt());
+    assertEquals(length, tag.getEncodedSize());
+
+    ByteBuf written = Unpooled.buffer();
+    tag.write(written);
+    assertEquals(Unpooled.wrappedBuffer(expected), written);
+    assertEquals(registry("minecraft:desert"), tag.getTag());
+  }
+
+  @Test
+  void deduplicatesIdenticalTags() {
+    EncodedCompoundTag first = EncodedCompoundTag.read(encode(registry("minecraft:forest")),
+        READER, 1024);
+    EncodedCompoundTag second = EncodedCompoundTag.read(encode(registry("minecraft:forest")),
+        READER, 1024);
+    EncodedCompoundTag other = EncodedCompoundTag.read(encode(registry("minecraft:taiga")),
+        READER, 1024);
+    assertSame(first, second);
+    assertNotSame(first, other);
+  }
+}
@@ -18,6 +18,7 @@
 package com.velocitypowered.proxy.scheduler;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.velocitypowered.api.scheduler.ScheduledTask;
 import com.velocitypowered.api.scheduler.TaskStatus;
@@ -129,4 +130,84 @@ class VelocitySchedulerTest {
 
   }
 
+  @Test
+  void hashedWheelRepeatTaskWorks() throws Exception {
+    VelocityScheduler scheduler = new VelocityScheduler(new FakePluginManager(), true, false);
+    try {
+      CountDownLatch latch = new CountDownLatch(3);
+      ScheduledTask task = scheduler.buildTask(FakePluginManager.PLUGIN_A, latch::countDown)
+          .delay(50, TimeUnit.MILLISECONDS)
+          .repeat(50, TimeUnit.MILLISECONDS)
+          .schedule();
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+      assertEquals(TaskStatus.SCHEDULED, task.status());
+      task.cancel();
+      assertEquals(TaskStatus.CANCELLED, task.status());
+      assertTrue(scheduler.tasksByPlugin(FakePluginManager.PLUGIN_A).isEmpty());
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+
+  @Test
+  void hashedWheelCancelWorks() throws Exception {
+    VelocityScheduler scheduler = new VelocityScheduler(new FakePluginManager(), true, false);
+    try {
+      AtomicInteger i = new AtomicInteger(3);
+      ScheduledTask task = scheduler.buildTask(FakePluginManager.PLUGIN_A, i::decrementAndGet)
+          .delay(100, TimeUnit.SECONDS)
+          .schedule();
+      task.cancel();
+      Thread.sleep(200);
+      assertEquals(3, i.get());
+      assertEquals(TaskStatus.CANCELLED, task.status());
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+
+  @Test
+  void hashedWheelTaskFinishesAfterRunning() throws Exception {
+    VelocityScheduler scheduler = new VelocityScheduler(new FakePluginManager(), true, false);
+    try {
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      ScheduledTask task = scheduler.buildTask(FakePluginManager.PLUGIN_A, () -> {
+        started.countDown();
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }).schedule();
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      assertEquals(TaskStatus.SCHEDULED, task.status());
+      release.countDown();
+      while (!scheduler.tasksByPlugin(FakePluginManager.PLUGIN_A).isEmpty()) {
+        Thread.sleep(5);
+      }
+      assertEquals(TaskStatus.FINISHED, task.status());
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+
+  @Test
+  void taskStatisticsAreRecorded() throws Exception {
+    VelocityScheduler scheduler = new VelocityScheduler(new FakePluginManager());
+    ScheduledTask task = scheduler.buildTask(FakePluginManager.PLUGIN_A, () -> {
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }).schedule();
+    while (task.executionCount() == 0) {
+      Thread.sleep(5);
+    }
+    assertEquals(1, task.executionCount());
+    assertTrue(task.averageExecutionTime().toMillis() >= 20);
+    assertTrue(scheduler.getStatistics().getAsJsonObject("plugins").has("a"));
+  }
+
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2023 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.condition.OS.LINUX;
+
+import com.velocitypowered.natives.compression.JavaVelocityCompressor;
+import com.velocitypowered.natives.compression.VelocityCompressor;
+import com.velocitypowered.natives.compression.VelocityCompressorFactory;
+import com.velocitypowered.natives.util.Natives;
+import com.velocitypowered.proxy.network.NetworkBuffer;
+import com.velocitypowered.proxy.network.packet.proxy.ProxyPacket;
+import com.velocitypowered.proxy.util.binary.BinaryUtils;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+
+class PacketUtilsTest {
+
+  private static final int PACKET_ID = 0x42;
+  private static final int COMPRESSION_THRESHOLD = 256;
+
+  @Test
+  @EnabledOnOs({LINUX})
+  void incompressibleSmallPacketMovesToNextSizeClass() {
+    checkIncompressiblePacket(Natives.compress.get(), ObjectPool.SMALL_PACKET_SIZE);
+  }
+
+  @Test
+  @EnabledOnOs({LINUX})
+  void incompressibleMediumPacketMovesToNextSizeClass() {
+    checkIncompressiblePacket(Natives.compress.get(), ObjectPool.MEDIUM_PACKET_SIZE);
+  }
+
+  @Test
+  void incompressibleSmallPacketMovesToNextSizeClassWithJavaCompressor() {
+    checkIncompressiblePacket(JavaVelocityCompressor.FACTORY, ObjectPool.SMALL_PACKET_SIZE);
+  }
+
+  @Test
+  void incompressibleMediumPacketMovesToNextSizeClassWithJavaCompressor() {
+    checkIncompressiblePacket(JavaVelocityCompressor.FACTORY, ObjectPool.MEDIUM_PACKET_SIZE);
+  }
+
+  private static void checkIncompressiblePacket(VelocityCompressorFactory factory,
+      int sizeClass) {
+    // The size hint puts the packet in this size class, but deflating random bytes makes it
+    // slightly larger than the packet itself, so it only fits in the next one.
+    final byte[] payload = new byte[sizeClass - 12];
+    new Random(1).nextBytes(payload);
+    final ProxyPacket packet = new RawPacket(payload);
+    final byte[] expected = new byte[payload.length + 1];
+    expected[0] = PACKET_ID;
+    System.arraycopy(payload, 0, expected, 1, payload.length);
+
+    final VelocityCompressor compressor = factory.create(Deflater.DEFAULT_COMPRESSION);
+    try {
+      // Twice, the compressor must be left usable by the first attempt
+      for (int i = 0; i < 2; i++) {
+        final byte[] content = PacketUtils.withFramedPacket(packet, COMPRESSION_THRESHOLD,
+            compressor, buffer -> {
+              // The length header is always padded to 3 bytes
+              assertEquals(buffer.remaining() - 3, BinaryUtils.readVarInt(buffer.duplicate()));
+              return readCompressedFrame(buffer);
+            });
+        assertArrayEquals(expected, content);
+      }
+    } finally {
+      compressor.close();
+    }
+  }
+
+  private static byte[] readCompressedFrame(ByteBuffer buffer) {
+    BinaryUtils.readVarInt(buffer);
+    final int uncompressedSize = BinaryUtils.readVarInt(buffer);
+    final byte[] content = new byte[uncompressedSize];
+    final Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(buffer);
+      assertEquals(uncompressedSize, inflater.inflate(content));
+    } catch (DataFormatException e) {
+      throw new AssertionError(e);
+    } finally {
+      inflater.end();
+    }
+    return content;
+  }
+
+  private record RawPacket(byte[] payload) implements ProxyPacket {
+
+    @Override
+    public int getId() {
+      return PACKET_ID;
+    }
+
+    @Override
+    public int encodeSizeHint() {
+      return payload.length;
+    }
+
+    @Override
+    public void write(@NotNull NetworkBuffer writer) {
+      writer.write(NetworkBuffer.RAW_BYTES, payload);
+    }
+  }
+}